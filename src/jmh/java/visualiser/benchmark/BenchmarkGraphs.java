@@ -0,0 +1,87 @@
+package visualiser.benchmark;
+
+import visualiser.data.GraphData;
+import visualiser.data.generator.ErdosRenyiGenerator;
+import visualiser.data.generator.GeneratedGraph;
+import visualiser.data.generator.GraphFileWriter;
+import visualiser.graphics.Graph;
+import visualiser.graphics.objects.DrawableEdge;
+import visualiser.graphics.objects.DrawableNode;
+import javafx.application.Platform;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+
+/**
+ * Shared set up for the benchmarks. Graphs are generated from a seed so that every run measures the same graphs.
+ */
+public class BenchmarkGraphs {
+    public static final long SEED = 42;
+
+    private static boolean javaFxStarted = false;
+
+    /**
+     * Generate a uniformly random undirected graph with the given number of nodes and edges.
+     * @param nodeCount the number of nodes
+     * @param edgeCount the number of edges, must be less than the number of possible pairs of nodes
+     * @param seed the seed used to choose the edges
+     * @return the generated graph data
+     * @see ErdosRenyiGenerator
+     */
+    public static GraphData randomGraph(int nodeCount, int edgeCount, long seed) {
+        return new ErdosRenyiGenerator(nodeCount, edgeCount).generateGraphData(seed);
+    }
+
+    /**
+     * Write a generated graph to a pair of temporary files that can be read by {@link visualiser.data.DataLoader}.
+     * The files are deleted when the JVM exits.
+     * @param graph the graph to write
+     * @return the node file and the edge file, in that order
+     */
+    public static File[] writeTemporaryFiles(GeneratedGraph graph) throws IOException {
+        File nodeFile = Files.createTempFile("benchmark-nodes", ".txt").toFile();
+        File edgeFile = Files.createTempFile("benchmark-edges", ".txt").toFile();
+        nodeFile.deleteOnExit();
+        edgeFile.deleteOnExit();
+        GraphFileWriter.write(graph, nodeFile, edgeFile);
+        return new File[]{nodeFile, edgeFile};
+    }
+
+    /**
+     * Start the JavaFX platform if it has not been started already, so that drawable nodes and edges can be created.
+     * Nothing is shown and the benchmarks never attach the created objects to a scene.
+     */
+    public static synchronized void startJavaFx() {
+        if (javaFxStarted) return;
+        try {
+            Platform.startup(() -> {});
+        } catch (IllegalStateException e) {
+            // The platform was already started
+        }
+        Platform.setImplicitExit(false);
+        javaFxStarted = true;
+    }
+
+    /**
+     * Create a graph and collect the drawable nodes and edges that it creates. No builder is run, so every node is at
+     * its default position.
+     * @param graphData the graph data to create the graph from
+     * @param width the width of the graph
+     * @param height the height of the graph
+     * @param nodes filled with the drawable nodes of the graph
+     * @param edges filled with the drawable edges of the graph
+     * @return the created graph
+     */
+    public static Graph createGraph(GraphData graphData, double width, double height,
+                                    ArrayList<DrawableNode> nodes, ArrayList<DrawableEdge> edges) {
+        startJavaFx();
+        Graph graph = new Graph((g, graphNodes, graphEdges) -> {}, width, height, graphData);
+        graph.buildWith((g, graphNodes, graphEdges) -> {
+            nodes.addAll(graphNodes);
+            edges.addAll(graphEdges);
+        });
+        return graph;
+    }
+}
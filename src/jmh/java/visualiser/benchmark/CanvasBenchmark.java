@@ -0,0 +1,52 @@
+package visualiser.benchmark;
+
+import visualiser.graphics.canvas.Canvas;
+import visualiser.graphics.canvas.Viewport;
+import visualiser.graphics.objects.DrawableEdge;
+import visualiser.graphics.objects.DrawableNode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of drawing every node and edge of a graph onto an empty {@link Canvas} at once. The canvas is not
+ * part of a scene, so only the bookkeeping of the canvas is measured and not the rendering.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CanvasBenchmark {
+    @Param({"100", "1000", "5000"})
+    public int nodeCount;
+
+    private final ArrayList<DrawableNode> nodes = new ArrayList<>();
+    private final ArrayList<DrawableEdge> edges = new ArrayList<>();
+    private Canvas canvas;
+
+    @Setup(Level.Trial)
+    public void createGraph() {
+        BenchmarkGraphs.createGraph(BenchmarkGraphs.randomGraph(nodeCount, nodeCount * 2, BenchmarkGraphs.SEED),
+                1500, 600, nodes, edges);
+        canvas = new Canvas(new Viewport(1500, 600, 1500, 600));
+    }
+
+    @TearDown(Level.Trial)
+    public void stopCanvas() {
+        canvas.stop();
+    }
+
+    @Setup(Level.Invocation)
+    public void clearCanvas() {
+        canvas.clear();
+    }
+
+    @Benchmark
+    public Canvas drawAll() {
+        canvas.draw(nodes, edges);
+        return canvas;
+    }
+}
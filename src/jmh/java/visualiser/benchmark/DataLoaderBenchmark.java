@@ -0,0 +1,58 @@
+package visualiser.benchmark;
+
+import visualiser.data.DataLoader;
+import visualiser.data.GraphData;
+import visualiser.data.generator.ErdosRenyiGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of {@link DataLoader#loadGraphData()} on a generated node file and edge file. The number of
+ * bytes read by each load is reported by the {@code bytes} counter, divide its rate by 1,000,000 for MB/s.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DataLoaderBenchmark {
+    @Param({"1000", "10000"})
+    public int edgeCount;
+
+    private File nodeFile, edgeFile;
+    private long fileBytes;
+
+    /**
+     * Counts the bytes read by every load, reported by JMH as a rate alongside the number of loads.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class ReadCounters {
+        public long bytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bytes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void writeFiles() throws IOException {
+        File[] files = BenchmarkGraphs.writeTemporaryFiles(
+                new ErdosRenyiGenerator(edgeCount / 2, edgeCount).generate(BenchmarkGraphs.SEED));
+        nodeFile = files[0];
+        edgeFile = files[1];
+        fileBytes = nodeFile.length() + edgeFile.length();
+    }
+
+    @Benchmark
+    public GraphData loadGraphData(ReadCounters counters) {
+        GraphData graphData = new DataLoader(nodeFile, edgeFile).loadGraphData();
+        counters.bytes += fileBytes;
+        return graphData;
+    }
+}
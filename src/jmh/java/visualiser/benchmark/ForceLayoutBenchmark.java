@@ -0,0 +1,61 @@
+package visualiser.benchmark;
+
+import visualiser.data.GraphData;
+import visualiser.layout.ForceLayout;
+import visualiser.layout.ForceLayout.RepulsionType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the number of force-directed iterations per second. This is the loop that {@code ForceDirectedBuilder}
+ * runs on its layout thread, so iterations per second here is iterations per second of the builder, without the
+ * cost of moving the drawable nodes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ForceLayoutBenchmark {
+    private static final double WIDTH = 1500, HEIGHT = 600, RADIUS = 10;
+
+    @Param({"100", "1000", "5000"})
+    public int nodeCount;
+
+    @Param({"EXACT", "BARNES_HUT"})
+    public RepulsionType repulsionType;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private GraphData graphData;
+    private ForceLayout layout;
+
+    @Setup(Level.Trial)
+    public void createGraph() {
+        graphData = BenchmarkGraphs.randomGraph(nodeCount, nodeCount * 2, BenchmarkGraphs.SEED);
+    }
+
+    /**
+     * Start every measurement from the same random positions so that later measurements are not only measuring a
+     * nearly converged layout.
+     */
+    @Setup(Level.Iteration)
+    public void createLayout() {
+        layout = ForceLayout.fromGraphData(graphData, WIDTH, HEIGHT, RADIUS, BenchmarkGraphs.SEED);
+        layout.setRepulsionType(repulsionType);
+        layout.setParallelism(parallelism);
+    }
+
+    @TearDown(Level.Iteration)
+    public void shutdownLayout() {
+        layout.shutdown();
+    }
+
+    @Benchmark
+    public double step() {
+        return layout.step();
+    }
+}
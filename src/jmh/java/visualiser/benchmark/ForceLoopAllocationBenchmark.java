@@ -0,0 +1,56 @@
+package visualiser.benchmark;
+
+import visualiser.data.GraphData;
+import visualiser.layout.ForceLayout;
+import visualiser.layout.ForceLayout.RepulsionType;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the memory allocated by each iteration of the force-directed layout once it has warmed up. Run with the
+ * GC profiler, {@code -prof gc}, and read {@code gc.alloc.rate.norm}, the bytes allocated per iteration. On a single
+ * thread this should be close to 0 for both repulsion types. With more threads each iteration also allocates the
+ * fork/join tasks that split the nodes between the threads, about a kilobyte.
+ * <br/>Unlike {@link ForceLayoutBenchmark} the layout is created once per trial, so the allocation of the layout itself
+ * and the first growth of the Barnes-Hut tree arrays are not counted against the iterations. The layout keeps
+ * calculating every force after it has cooled down, so later iterations do the same work as earlier ones.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ForceLoopAllocationBenchmark {
+    private static final double WIDTH = 1500, HEIGHT = 600, RADIUS = 10;
+
+    @Param({"1000"})
+    public int nodeCount;
+
+    @Param({"EXACT", "BARNES_HUT"})
+    public RepulsionType repulsionType;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private ForceLayout layout;
+
+    @Setup(Level.Trial)
+    public void createLayout() {
+        GraphData graphData = BenchmarkGraphs.randomGraph(nodeCount, nodeCount * 2, BenchmarkGraphs.SEED);
+        layout = ForceLayout.fromGraphData(graphData, WIDTH, HEIGHT, RADIUS, BenchmarkGraphs.SEED);
+        layout.setRepulsionType(repulsionType);
+        layout.setParallelism(parallelism);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdownLayout() {
+        layout.shutdown();
+    }
+
+    @Benchmark
+    public double step() {
+        return layout.step();
+    }
+}
@@ -0,0 +1,73 @@
+package visualiser.benchmark;
+
+import visualiser.graphics.Graph;
+import visualiser.graphics.objects.DrawableEdge;
+import visualiser.graphics.objects.DrawableNode;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the latency of looking up nodes and edges on a {@link Graph}. Each call looks up the next of a fixed set of
+ * randomly chosen nodes or edges so that the results are not dominated by a single cached entry.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraphLookupBenchmark {
+    private static final int LOOKUPS = 1024;
+
+    @Param({"1000", "10000"})
+    public int nodeCount;
+
+    private Graph graph;
+    private final int[] nodeIDs = new int[LOOKUPS];
+    private final DrawableNode[] firstNodes = new DrawableNode[LOOKUPS], secondNodes = new DrawableNode[LOOKUPS];
+    private final DrawableNode[] edgeStarts = new DrawableNode[LOOKUPS], edgeEnds = new DrawableNode[LOOKUPS];
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void createGraph() {
+        ArrayList<DrawableNode> nodes = new ArrayList<>();
+        ArrayList<DrawableEdge> edges = new ArrayList<>();
+        graph = BenchmarkGraphs.createGraph(BenchmarkGraphs.randomGraph(nodeCount, nodeCount * 2, BenchmarkGraphs.SEED),
+                1500, 600, nodes, edges);
+
+        Random random = new Random(BenchmarkGraphs.SEED);
+        for (int i = 0; i < LOOKUPS; i++) {
+            nodeIDs[i] = nodes.get(random.nextInt(nodes.size())).id();
+            firstNodes[i] = nodes.get(random.nextInt(nodes.size()));
+            secondNodes[i] = nodes.get(random.nextInt(nodes.size()));
+            DrawableEdge edge = edges.get(random.nextInt(edges.size()));
+            edgeStarts[i] = edge.startNode();
+            edgeEnds[i] = edge.endNode();
+        }
+    }
+
+    private int nextLookup() {
+        next = (next + 1) & (LOOKUPS - 1);
+        return next;
+    }
+
+    @Benchmark
+    public DrawableNode getNode() {
+        return graph.getNode(nodeIDs[nextLookup()]);
+    }
+
+    @Benchmark
+    public boolean areConnected() {
+        int i = nextLookup();
+        return graph.areConnected(firstNodes[i], secondNodes[i]);
+    }
+
+    @Benchmark
+    public DrawableEdge getEdge() {
+        int i = nextLookup();
+        return graph.getEdge(edgeStarts[i], edgeEnds[i], true);
+    }
+}
@@ -0,0 +1,25 @@
+/**
+ * JMH benchmarks of the layout, loading, lookups and drawing. The tree has no build manifest, so the benchmarks are
+ * compiled and run by hand with Java 17. From the root of the repository, first download JMH and JavaFX into
+ * {@code target/jmh-lib} with the Maven wrapper:
+ * <pre>
+ * for a in org.openjdk.jmh:jmh-core:1.37 org.openjdk.jmh:jmh-generator-annprocess:1.37 \
+ *          net.sf.jopt-simple:jopt-simple:5.0.4 org.apache.commons:commons-math3:3.6.1 \
+ *          org.openjfx:javafx-base:17.0.2:jar:linux org.openjfx:javafx-graphics:17.0.2:jar:linux \
+ *          org.openjfx:javafx-controls:17.0.2:jar:linux org.openjfx:javafx-fxml:17.0.2:jar:linux; do
+ *     sh mvnw -q dependency:copy -Dartifact=$a -DoutputDirectory=target/jmh-lib
+ * done
+ * </pre>
+ * On Windows or macOS use the JavaFX jars for that platform instead of {@code linux}. Then compile the application
+ * without its module descriptor, compile the benchmarks, which runs the JMH annotation processor, and run them:
+ * <pre>
+ * javac -d target/classes -cp "target/jmh-lib/*" $(find src/main/java -name '*.java' ! -name module-info.java)
+ * javac -d target/jmh-classes -cp "target/classes:target/jmh-lib/*" $(find src/jmh/java -name '*.java')
+ * java -cp "target/jmh-classes:target/classes:target/jmh-lib/*" org.openjdk.jmh.Main ForceLayoutBenchmark
+ * </pre>
+ * The last argument is a pattern of the benchmarks to run, leave it out to run all of them. Add {@code -prof gc} to
+ * measure allocation, see {@link visualiser.benchmark.ForceLoopAllocationBenchmark}. {@link
+ * visualiser.benchmark.GraphLookupBenchmark} and {@link visualiser.benchmark.CanvasBenchmark} start the JavaFX
+ * platform, so they need a display.
+ */
+package visualiser.benchmark;
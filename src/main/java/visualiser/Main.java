@@ -8,7 +8,7 @@ public class Main extends Application {
 
     @Override
     public void start(Stage stage) {
-        stage.setResizable(false);
+        stage.setResizable(true);
 
         ApplicationWindow window = new ApplicationWindow();
 
@@ -6,14 +6,18 @@ import visualiser.graphics.logic.ForceDirectedBuilder;
 import visualiser.graphics.logic.GraphBuilder;
 import visualiser.graphics.logic.NodeSlider;
 import visualiser.graphics.objects.DrawableNode;
+import visualiser.layout.LayoutCache;
 import javafx.scene.Group;
 import javafx.scene.Scene;
 import javafx.scene.control.Button;
 
+import java.io.File;
 import java.util.ArrayList;
 
 public class ApplicationWindow {
     public static final int WIDTH = 1500, HEIGHT = 700;
+    /**The system property that sets the directory finished layouts are cached in.*/
+    public static final String LAYOUT_CACHE_PROPERTY = "visualiser.layoutCache";
 
     private final Scene scene;
     private final Button resetButton = new Button("Reset");
@@ -33,6 +37,7 @@ public class ApplicationWindow {
         // Create the force-directed builder
         ForceDirectedBuilder builder = new ForceDirectedBuilder(ForceDirectedBuilder.AnimationType.FULL_ANIMATION, false);
         builder.setEndAction(() -> enableButtons(false));
+        builder.setLayoutCache(new LayoutCache(getLayoutCacheDirectory()));
 
         // Create the reset builder, slide nodes to a random position
         GraphBuilder randomReset = (visualGraph, graphNodes, graphEdges) -> {
@@ -55,13 +60,9 @@ public class ApplicationWindow {
             graph.buildWith(builder);
         });
 
-        // Initialise the button positions and sizes
+        // Initialise the button sizes
         resetButton.setMinSize(100, 50);
-        resetButton.setLayoutX((WIDTH/2d)+20);
-        resetButton.setLayoutY(HEIGHT-75);
         playButton.setMinSize(100, 50);
-        playButton.setLayoutX((WIDTH/2d) - 120);
-        playButton.setLayoutY(HEIGHT-75);
 
         // Create the scene
         Group root = new Group();
@@ -70,9 +71,39 @@ public class ApplicationWindow {
         // Add graph elements to the scene
         root.getChildren().addAll(graph, playButton, resetButton);
 
+        // Fit the graph's viewport and the buttons to the window whenever it is resized
+        layoutWindow(graph, WIDTH, HEIGHT);
+        scene.widthProperty().addListener((ignored1, ignored2, width) ->
+                layoutWindow(graph, width.doubleValue(), scene.getHeight()));
+        scene.heightProperty().addListener((ignored1, ignored2, height) ->
+                layoutWindow(graph, scene.getWidth(), height.doubleValue()));
+
         graph.build();
     }
 
+    /**
+     * Size the graph's viewport to fill the window above the buttons, and centre the buttons below it.
+     */
+    private void layoutWindow(Graph graph, double width, double height) {
+        graph.getViewport().setSize(Math.max(1, width), Math.max(1, height - 100));
+        resetButton.setLayoutX((width/2) + 20);
+        resetButton.setLayoutY(height - 75);
+        playButton.setLayoutX((width/2) - 120);
+        playButton.setLayoutY(height - 75);
+    }
+
+    /**
+     * Get the directory to cache finished layouts in, so that a graph that has been laid out before is placed
+     * immediately. The directory is set with the {@value #LAYOUT_CACHE_PROPERTY} system property, or is a directory in
+     * the user's home directory if the property is not set.
+     * @return the layout cache directory
+     */
+    private static File getLayoutCacheDirectory() {
+        String directory = System.getProperty(LAYOUT_CACHE_PROPERTY);
+        if (directory != null && !directory.isBlank()) return new File(directory);
+        return new File(new File(System.getProperty("user.home"), ".visualise-node-graph"), "layouts");
+    }
+
     /**
      * @return the scene of the application
      */
@@ -0,0 +1,47 @@
+package visualiser.data;
+
+/**
+ * The layout of a binary graph file, shared by {@link BinaryGraphWriter} and {@link BinaryGraphReader}.
+ * <br/>All values are big-endian. The file starts with a header:
+ * <ul>
+ *     <li>int - {@link #MAGIC}</li>
+ *     <li>int - {@link #VERSION}</li>
+ *     <li>int - flags, {@link #HAS_POSITIONS}</li>
+ *     <li>int - the number of nodes</li>
+ *     <li>int - the number of edges</li>
+ *     <li>int - the number of strings in the string pool</li>
+ *     <li>long - the number of bytes of string data</li>
+ * </ul>
+ * Followed by each section in order:
+ * <ul>
+ *     <li>int[nodes] - the ID of each node</li>
+ *     <li>int[nodes] - the string index of the name of each node</li>
+ *     <li>int[nodes] - the string index of the weight of each node, or -1 if the node has no weight</li>
+ *     <li>int[nodes + 1] - the offset of the first edge of each node, in compressed sparse row form</li>
+ *     <li>int[edges] - the index of the node at the end of each edge</li>
+ *     <li>int[edges] - the string index of the weight of each edge, or -1 if the edge has no weight</li>
+ *     <li>int[strings + 1] - the offset of the first byte of each string in the string data</li>
+ *     <li>double[nodes] - the x position of each node, only if {@link #HAS_POSITIONS} is set</li>
+ *     <li>double[nodes] - the y position of each node, only if {@link #HAS_POSITIONS} is set</li>
+ *     <li>byte[edges] - the flags of each edge, {@link #DIRECTED}</li>
+ *     <li>byte[string data] - the UTF-8 bytes of every string</li>
+ * </ul>
+ * Edges are stored with their start node, so the edges that start at node {@code i} are {@code offsets[i]} to
+ * {@code offsets[i + 1] - 1}. Byte sections are stored last so that every other section is aligned to its size.
+ */
+final class BinaryGraphFormat {
+    static final int MAGIC = 0x564E4742; // "VNGB"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 32;
+
+    // File flags
+    static final int HAS_POSITIONS = 1;
+
+    // Edge flags
+    static final byte DIRECTED = 1;
+
+    static final int NO_STRING = -1;
+
+    private BinaryGraphFormat() {
+    }
+}
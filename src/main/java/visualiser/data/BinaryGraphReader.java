@@ -0,0 +1,245 @@
+package visualiser.data;
+
+import visualiser.data.elements.Edge;
+import visualiser.data.elements.Node;
+import visualiser.data.elements.WeightedEdge;
+import visualiser.data.elements.WeightedNode;
+import visualiser.data.exceptions.InvalidDataException;
+import visualiser.data.exceptions.InvalidFileException;
+import visualiser.graphics.objects.exceptions.InvalidEdgeException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Loads {@link GraphData} from a binary graph file written by {@link BinaryGraphWriter}. Each section of the file is
+ * memory mapped and copied into an array in bulk, no text is parsed. Every string in the file is decoded once, so
+ * nodes and edges with the same weight share the same String.
+ * @see BinaryGraphFormat
+ */
+public class BinaryGraphReader {
+    private final File file;
+
+    private GraphData graphData = null;
+    private double[] x = null, y = null;
+
+    /**
+     * Create a new BinaryGraphReader object to read from a binary graph file.
+     * @param filePath the string filepath of the binary graph file, to be passed into {@link File}
+     */
+    public BinaryGraphReader(String filePath) {
+        this(new File(filePath));
+    }
+
+    /**
+     * Create a new BinaryGraphReader object to read from a binary graph file.
+     * @param file the binary graph {@link File}
+     */
+    public BinaryGraphReader(File file) {
+        this.file = file;
+    }
+
+    /**
+     * If {@link #loadGraphData()} has already been called get the loaded graph data, if it hasn't been called then
+     * load the data from the file. To reload graph data call {@link #loadGraphData()} instead.
+     * @return the loaded graph data
+     */
+    public GraphData getGraphData() {
+        if (graphData == null) return loadGraphData();
+        return graphData;
+    }
+
+    /**
+     * @return true if the loaded file contains the position of each node
+     * @see #getXPositions()
+     * @see #getYPositions()
+     */
+    public boolean hasPositions() {
+        getGraphData();
+        return x != null;
+    }
+
+    /**
+     * @return the x position of each node in the same order as {@link GraphData#getNodes()}, or null if the file does
+     * not contain positions
+     */
+    public double[] getXPositions() {
+        getGraphData();
+        return x;
+    }
+
+    /**
+     * @return the y position of each node in the same order as {@link GraphData#getNodes()}, or null if the file does
+     * not contain positions
+     */
+    public double[] getYPositions() {
+        getGraphData();
+        return y;
+    }
+
+    /**
+     * Load and store a new {@link GraphData} object, and the node positions if there are any, from the binary graph
+     * file.
+     * @return the GraphData object created
+     * @throws InvalidFileException if the file does not exist, could not be read or is not a valid binary graph file
+     */
+    public GraphData loadGraphData() {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return load(channel);
+        } catch (NoSuchFileException e) {
+            throw new InvalidFileException("Binary graph file does not exist.");
+        } catch (IOException e) {
+            throw new InvalidFileException("Binary graph file could not be read.");
+        }
+    }
+
+    private GraphData load(FileChannel channel) throws IOException {
+        long fileSize = channel.size();
+        if (fileSize < BinaryGraphFormat.HEADER_SIZE) throw new InvalidFileException("Binary graph file is too short.");
+
+        ByteBuffer header = map(channel, 0, BinaryGraphFormat.HEADER_SIZE);
+        if (header.getInt() != BinaryGraphFormat.MAGIC) throw new InvalidFileException("Not a binary graph file.");
+        int version = header.getInt();
+        if (version != BinaryGraphFormat.VERSION) throw new InvalidFileException("Unsupported binary graph file version " + version + ".");
+        int flags = header.getInt();
+        int nodeCount = header.getInt();
+        int edgeCount = header.getInt();
+        int stringCount = header.getInt();
+        long stringBytes = header.getLong();
+        if (nodeCount < 0 || edgeCount < 0 || stringCount < 0 || stringBytes < 0 || stringBytes > Integer.MAX_VALUE)
+            throw new InvalidFileException("Binary graph file has an invalid header.");
+        boolean hasPositions = (flags & BinaryGraphFormat.HAS_POSITIONS) != 0;
+
+        long expectedSize = BinaryGraphFormat.HEADER_SIZE
+                + Integer.BYTES * (3L * nodeCount + (nodeCount + 1L) + 2L * edgeCount + (stringCount + 1L))
+                + (hasPositions ? Double.BYTES * 2L * nodeCount : 0)
+                + edgeCount + stringBytes;
+        if (fileSize != expectedSize) throw new InvalidFileException("Binary graph file is the wrong size for its contents.");
+
+        Sections sections = new Sections(channel);
+        int[] ids = sections.ints(nodeCount);
+        int[] names = sections.ints(nodeCount);
+        int[] nodeWeights = sections.ints(nodeCount);
+        int[] offsets = sections.ints(nodeCount + 1);
+        int[] targets = sections.ints(edgeCount);
+        int[] edgeWeights = sections.ints(edgeCount);
+        int[] stringOffsets = sections.ints(stringCount + 1);
+        double[] x = hasPositions ? sections.doubles(nodeCount) : null;
+        double[] y = hasPositions ? sections.doubles(nodeCount) : null;
+        byte[] edgeFlags = sections.bytes(edgeCount);
+        byte[] stringData = sections.bytes((int) stringBytes);
+
+        String[] strings = decodeStrings(stringOffsets, stringData);
+
+        Node[] nodes = new Node[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            String name = stringAt(strings, names[i], false);
+            String weight = stringAt(strings, nodeWeights[i], true);
+            try {
+                nodes[i] = weight == null ? new Node(ids[i], name) : new WeightedNode(ids[i], name, weight);
+            } catch (InvalidDataException e) {
+                throw new InvalidFileException("Binary graph file has an invalid node ID \"" + ids[i] + "\".");
+            }
+        }
+
+        if (offsets[0] != 0 || offsets[nodeCount] != edgeCount)
+            throw new InvalidFileException("Binary graph file has invalid edge offsets.");
+        ArrayList<Edge> edges = new ArrayList<>(edgeCount);
+        for (int start = 0; start < nodeCount; start++) {
+            if (offsets[start] > offsets[start + 1]) throw new InvalidFileException("Binary graph file has invalid edge offsets.");
+            Node startNode = nodes[start];
+            for (int edge = offsets[start]; edge < offsets[start + 1]; edge++) {
+                if (targets[edge] < 0 || targets[edge] >= nodeCount)
+                    throw new InvalidFileException("Binary graph file has an edge to an undefined node.");
+                Node endNode = nodes[targets[edge]];
+                boolean directed = (edgeFlags[edge] & BinaryGraphFormat.DIRECTED) != 0;
+                String weight = stringAt(strings, edgeWeights[edge], true);
+                try {
+                    edges.add(weight == null ? new Edge(startNode, endNode, directed)
+                            : new WeightedEdge(startNode, endNode, directed, weight));
+                } catch (InvalidEdgeException e) {
+                    throw new InvalidFileException("Binary graph file has an edge from a node to itself.");
+                }
+            }
+        }
+
+        this.x = x;
+        this.y = y;
+        // Every node on an edge is in the node table, so there is no need to search the edges for more nodes
+        graphData = new GraphData(new ArrayList<>(Arrays.asList(nodes)), edges, false);
+        return graphData;
+    }
+
+    private static String[] decodeStrings(int[] offsets, byte[] data) {
+        String[] strings = new String[offsets.length - 1];
+        for (int i = 0; i < strings.length; i++) {
+            int start = offsets[i], end = offsets[i + 1];
+            if (start < 0 || end < start || end > data.length)
+                throw new InvalidFileException("Binary graph file has invalid string offsets.");
+            strings[i] = new String(data, start, end - start, StandardCharsets.UTF_8);
+        }
+        return strings;
+    }
+
+    /**
+     * @param strings the decoded strings of the file
+     * @param index the index of the string
+     * @param optional true if the index can be {@link BinaryGraphFormat#NO_STRING}
+     * @return the string at the index, or null if the string is optional and there is no string
+     */
+    private static String stringAt(String[] strings, int index, boolean optional) {
+        if (optional && index == BinaryGraphFormat.NO_STRING) return null;
+        if (index < 0 || index >= strings.length) throw new InvalidFileException("Binary graph file refers to an undefined string.");
+        return strings[index];
+    }
+
+    private static ByteBuffer map(FileChannel channel, long position, long size) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+    }
+
+    /**
+     * Reads the sections of a binary graph file in order, mapping each one separately so that the file can be larger
+     * than a single mapping allows.
+     */
+    private static class Sections {
+        private final FileChannel channel;
+        private long position = BinaryGraphFormat.HEADER_SIZE;
+
+        private Sections(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        private ByteBuffer next(int count, int size) throws IOException {
+            long length = (long) count * size;
+            if (length > Integer.MAX_VALUE) throw new InvalidFileException("Binary graph file has a section that is too large to be read.");
+            ByteBuffer buffer = map(channel, position, length);
+            position += length;
+            return buffer;
+        }
+
+        private int[] ints(int count) throws IOException {
+            int[] values = new int[count];
+            next(count, Integer.BYTES).asIntBuffer().get(values);
+            return values;
+        }
+
+        private double[] doubles(int count) throws IOException {
+            double[] values = new double[count];
+            next(count, Double.BYTES).asDoubleBuffer().get(values);
+            return values;
+        }
+
+        private byte[] bytes(int count) throws IOException {
+            byte[] values = new byte[count];
+            next(count, 1).get(values);
+            return values;
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package visualiser.data;
+
+import visualiser.data.elements.Node;
+import visualiser.data.elements.WeightedNode;
+import visualiser.data.exceptions.InvalidDataException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Writes {@link GraphData} to a compact binary file that can be loaded by {@link BinaryGraphReader} without parsing
+ * any text. Node names and all weights are stored once each in a string pool and edges are stored in compressed
+ * sparse row form. The position of each node can optionally be saved as well.
+ * <br/>Edges are grouped by their start node, keeping their order within each node, so a graph is read back with its
+ * edges in that order.
+ * @see BinaryGraphFormat
+ */
+public class BinaryGraphWriter {
+    private static final int bufferSize = 1 << 16;
+
+    /**
+     * Write graph data to a binary graph file without node positions. An existing file is overwritten.
+     * @param graphData the graph data to write
+     * @param file the file to write to
+     * @throws IOException if the file could not be written
+     */
+    public static void write(GraphData graphData, File file) throws IOException {
+        write(graphData, null, null, file);
+    }
+
+    /**
+     * Write graph data and the position of each node to a binary graph file. An existing file is overwritten.
+     * @param graphData the graph data to write
+     * @param x the x position of each node, in the same order as {@link GraphData#getNodes()}, or null to not save
+     *          positions
+     * @param y the y position of each node, in the same order as {@link GraphData#getNodes()}, or null to not save
+     *          positions
+     * @param file the file to write to
+     * @throws IOException if the file could not be written
+     * @throws InvalidDataException if two nodes share an ID or an edge has a node that is not in the graph data
+     */
+    public static void write(GraphData graphData, double[] x, double[] y, File file) throws IOException {
+        List<Node> nodes = graphData.getNodeView();
+        int nodeCount = nodes.size();
+        int edgeCount = graphData.edgeCount();
+        boolean hasPositions = x != null && y != null;
+        if (hasPositions && (x.length != nodeCount || y.length != nodeCount))
+            throw new IllegalArgumentException("There must be one position for every node");
+
+        StringPool strings = new StringPool();
+
+        // Node table, the edges refer to nodes by their index in the graph data
+        int[] ids = new int[nodeCount];
+        int[] names = new int[nodeCount];
+        int[] nodeWeights = new int[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            Node node = nodes.get(i);
+            if (graphData.indexOf(node.id()) != i)
+                throw new InvalidDataException("Two nodes share the ID \"" + node.id() + "\"");
+            ids[i] = node.id();
+            names[i] = strings.indexOf(node.name());
+            nodeWeights[i] = node instanceof WeightedNode weightedNode
+                    ? strings.indexOf(weightedNode.value()) : BinaryGraphFormat.NO_STRING;
+        }
+
+        // The topology already groups the edges by their start node in compressed sparse row form
+        GraphTopology topology = graphData.getTopology();
+        int[] offsets = topology.offsets();
+        int[] targets = topology.targets();
+        String[] topologyWeights = topology.weights();
+        int[] weightStrings = new int[topologyWeights.length];
+        for (int i = 0; i < topologyWeights.length; i++) weightStrings[i] = strings.indexOf(topologyWeights[i]);
+        int[] edgeWeights = new int[edgeCount];
+        byte[] edgeFlags = new byte[edgeCount];
+        for (int slot = 0; slot < edgeCount; slot++) {
+            int weightIndex = topology.weightIndex(slot);
+            edgeWeights[slot] = weightIndex == GraphTopology.NO_WEIGHT ? BinaryGraphFormat.NO_STRING : weightStrings[weightIndex];
+            edgeFlags[slot] = topology.isDirected(slot) ? BinaryGraphFormat.DIRECTED : 0;
+        }
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel);
+            out.putInt(BinaryGraphFormat.MAGIC);
+            out.putInt(BinaryGraphFormat.VERSION);
+            out.putInt(hasPositions ? BinaryGraphFormat.HAS_POSITIONS : 0);
+            out.putInt(nodeCount);
+            out.putInt(edgeCount);
+            out.putInt(strings.size());
+            out.putLong(strings.byteCount());
+
+            out.putInts(ids);
+            out.putInts(names);
+            out.putInts(nodeWeights);
+            out.putInts(offsets);
+            out.putInts(targets);
+            out.putInts(edgeWeights);
+            out.putInts(strings.offsets());
+            if (hasPositions) {
+                out.putDoubles(x);
+                out.putDoubles(y);
+            }
+            out.putBytes(edgeFlags, edgeFlags.length);
+            out.putBytes(strings.bytes, strings.byteCount());
+            out.flush();
+        }
+    }
+
+    /**
+     * The unique strings of a graph in the order they were first added, encoded as UTF-8.
+     */
+    private static class StringPool {
+        private final HashMap<String, Integer> indexes = new HashMap<>();
+        private int[] offsets = new int[16];
+        private byte[] bytes = new byte[1024];
+        private int size = 0;
+
+        /**
+         * Get the index of a string, adding it to the pool if it has not been added before.
+         * @param string the string to find
+         * @return the index of the string
+         */
+        private int indexOf(String string) {
+            Integer index = indexes.get(string);
+            if (index != null) return index;
+
+            byte[] encoded = string.getBytes(StandardCharsets.UTF_8);
+            long byteCount = (long) byteCount() + encoded.length;
+            if (byteCount > Integer.MAX_VALUE) throw new InvalidDataException("Too much string data to write");
+            if (byteCount > bytes.length) bytes = Arrays.copyOf(bytes, (int) Math.min(Integer.MAX_VALUE - 8, Math.max(byteCount, bytes.length * 2L)));
+            if (size + 2 > offsets.length) offsets = Arrays.copyOf(offsets, offsets.length * 2);
+
+            System.arraycopy(encoded, 0, bytes, byteCount(), encoded.length);
+            offsets[++size] = (int) byteCount;
+            indexes.put(string, size - 1);
+            return size - 1;
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private int byteCount() {
+            return offsets[size];
+        }
+
+        /**
+         * @return the offset of the first byte of each string, followed by the total number of bytes
+         */
+        private int[] offsets() {
+            return Arrays.copyOf(offsets, size + 1);
+        }
+    }
+
+    /**
+     * Buffers values and writes them to a channel whenever the buffer is full.
+     */
+    private static class Output {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(bufferSize);
+
+        private Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        private void ensureSpace(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) flush();
+        }
+
+        private void putInt(int value) throws IOException {
+            ensureSpace(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        private void putLong(long value) throws IOException {
+            ensureSpace(Long.BYTES);
+            buffer.putLong(value);
+        }
+
+        private void putInts(int[] values) throws IOException {
+            int written = 0;
+            while (written < values.length) {
+                ensureSpace(Integer.BYTES);
+                int count = Math.min(buffer.remaining() / Integer.BYTES, values.length - written);
+                buffer.asIntBuffer().put(values, written, count);
+                buffer.position(buffer.position() + count * Integer.BYTES);
+                written += count;
+            }
+        }
+
+        private void putDoubles(double[] values) throws IOException {
+            int written = 0;
+            while (written < values.length) {
+                ensureSpace(Double.BYTES);
+                int count = Math.min(buffer.remaining() / Double.BYTES, values.length - written);
+                buffer.asDoubleBuffer().put(values, written, count);
+                buffer.position(buffer.position() + count * Double.BYTES);
+                written += count;
+            }
+        }
+
+        private void putBytes(byte[] values, int length) throws IOException {
+            int written = 0;
+            while (written < length) {
+                if (!buffer.hasRemaining()) flush();
+                int count = Math.min(buffer.remaining(), length - written);
+                buffer.put(values, written, count);
+                written += count;
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) channel.write(buffer);
+            buffer.clear();
+        }
+    }
+}
@@ -7,21 +7,49 @@ import visualiser.data.elements.WeightedNode;
 import visualiser.data.exceptions.InvalidFileException;
 import visualiser.graphics.objects.exceptions.InvalidEdgeException;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.Scanner;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class DataLoader {
     private static final File defaultNodeFile = new File("src/main/java/visualiser/data/storage/Nodes.txt");
     private static final File defaultEdgeFile = new File("src/main/java/visualiser/data/storage/Edges.txt");
     private static final String defaultDelimiter = ";";
     private static final String commentPrefix = "//";
+    // Edge files smaller than this are always loaded one line at a time, as starting threads would cost more than it
+    // saves
+    private static final long minParallelFileSize = 1 << 20;
+    private static final long minChunkSize = 1 << 20;
+    private static final long maxChunkSize = 1 << 28;
+    // The number of chunks given to each thread, more than one so that uneven chunks are balanced between threads
+    private static final int chunksPerThread = 4;
 
     private final File nodeFile;
     private final File edgeFile;
 
     private GraphData graphData = null;
+    private int parallelism = 1;
 
     /**
      * Create a new DataLoader object with default file paths:
@@ -95,6 +123,28 @@ public class DataLoader {
         return getGraphData().getEdges();
     }
 
+    /**
+     * Set the number of threads used to parse the Edges.txt file. If greater than 1 and the file is at least 1MB then
+     * the file is memory mapped and split into chunks of whole lines which are parsed in parallel. The loaded graph
+     * data is identical whichever value is used, including the IDs given to nodes created from the Edges.txt file.
+     * <br/>Parallel loading splits the file on its line breaks before decoding it, so it requires the default
+     * charset to be one where the line break characters cannot appear inside another character, such as UTF-8.
+     * <br/>Default value is 1, reading the file one line at a time.
+     * @param parallelism the number of threads, must be at least 1
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be at least 1");
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @return the number of threads used to parse the Edges.txt file
+     * @see #setParallelism(int)
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
     /**
      * Load and store a new {@link GraphData} object using data from Nodes.txt and Edges.txt. If the Nodes.txt file is
      * not found node data will be loaded from the Edges.txt file only.
@@ -113,72 +163,79 @@ public class DataLoader {
                 nodes = new ArrayList<>();
             }
         }
-        graphData = new GraphData(nodes, loadEdges(nodes));
+        // New nodes are counted rather than logged one at a time, as printing each one slows down large files
+        int predefinedCount = nodes.size();
+        ArrayList<Edge> edges = loadEdges(nodes);
+        System.out.println("Created " + (nodes.size() - predefinedCount) + " nodes from the edge file.");
+        graphData = new GraphData(nodes, edges);
         return graphData;
     }
 
     /**
-     * Load an array of {@link Node Nodes} from the Nodes.txt file.
+     * Load an array of {@link Node Nodes} from the Nodes.txt file. The file is read one line at a time.
      * @return a new ArrayList of Nodes
      */
     private ArrayList<Node> loadNodes() throws FileNotFoundException {
         if (nodeFile == null) throw new FileNotFoundException();
-        Scanner fileScanner;
-        fileScanner = new Scanner(nodeFile);
 
         ArrayList<Node> nodes = new ArrayList<>();
+        // Index of the loaded nodes by name, used to find duplicate names without searching every node
+        HashMap<String, Node> nodesByName = new HashMap<>();
 
         String nodeDelimiter = null;
 
         int dataLineNum = 0;
         int fileLineNum = 0;
-        while (fileScanner.hasNextLine()) {
-            String line = fileScanner.nextLine();
-            fileLineNum++;
-            if (line.startsWith(commentPrefix)) continue;
-            
-            dataLineNum++;
-            if (dataLineNum == 1) {
-                try {
-                    // If the line contains the pattern "\"(.*)\"" then set the delimiter to the contents of the quotes
-                    nodeDelimiter = loadDelimiter(1, line);
-                    // And skip the line
-                    continue;
-                } catch (InvalidFileException e) {
-                    // If the line doesn't contain the pattern "\"(.*)\"" then set the delimiter to the default
-                    nodeDelimiter = defaultDelimiter;
+        try (BufferedReader reader = new BufferedReader(new FileReader(nodeFile))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                fileLineNum++;
+                if (line.startsWith(commentPrefix)) continue;
+
+                dataLineNum++;
+                if (dataLineNum == 1) {
+                    try {
+                        // If the line contains the pattern "\"(.*)\"" then set the delimiter to the contents of the quotes
+                        nodeDelimiter = loadDelimiter(1, line);
+                        // And skip the line
+                        continue;
+                    } catch (InvalidFileException e) {
+                        // If the line doesn't contain the pattern "\"(.*)\"" then set the delimiter to the default
+                        nodeDelimiter = defaultDelimiter;
+                    }
                 }
-            }
 
-            String[] values = line.split(nodeDelimiter, 2);
-            if (values.length == 0)
-                throw new InvalidFileException(fileLineNum, "No data could be found using delimiter \"" + nodeDelimiter + "\"");
+                // Get the name of the node and the weight if there is one, removing whitespace
+                int delimiterIndex = indexOfDelimiter(line, nodeDelimiter, 0);
+                String name = (delimiterIndex == -1 ? line : line.substring(0, delimiterIndex)).trim();
 
-            // Remove whitespace
-            trimParts(values);
+                // Validate that the node name is not empty and doesn't already exist
+                if (name.equals("")) throw new InvalidFileException(fileLineNum, "Empty node name");
+                if (nodesByName.containsKey(name)) throw new InvalidFileException(fileLineNum, "Duplicate of node \"" + name + "\"");
 
-            // Get the name of the node and validate that it doesn't already exist
-            String name = values[0];
-            if (name.equals("")) throw new InvalidFileException(fileLineNum, "Empty node name");
-            for (Node node : nodes) {
-                if (node.name().equals(name)) throw new InvalidFileException(fileLineNum, "Duplicate of node \"" + name + "\"");
-            }
-
-            // Check if the node is weighted and create a new Node or WeightedNode as appropriate
-            if (values.length == 2) {
-                nodes.add(new WeightedNode(fileLineNum-1, name, values[1]));
-            } else {
-                nodes.add(new Node(fileLineNum-1, name));
+                // Check if the node is weighted and create a new Node or WeightedNode as appropriate
+                Node node;
+                if (delimiterIndex != -1) {
+                    node = new WeightedNode(fileLineNum-1, name, line.substring(delimiterIndex + nodeDelimiter.length()).trim());
+                } else {
+                    node = new Node(fileLineNum-1, name);
+                }
+                nodes.add(node);
+                nodesByName.put(name, node);
             }
+        } catch (FileNotFoundException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new InvalidFileException("Node file could not be read.");
         }
-        fileScanner.close();
 
         return nodes;
     }
 
     /**
      * Load edges from the Edges.txt file with a set of predefined nodes. Any new nodes found in the Edges.txt file
-     * will be created and added to the nodes array.
+     * will be created and added to the nodes array. The file is read one line at a time and each edge is created as
+     * soon as its line has been read.
      * @param nodes the predefined {@link Node Nodes} to be added to with new nodes and read from for existing nodes
      * @return an ArrayList of {@link Edge Edges}
      */
@@ -186,10 +243,12 @@ public class DataLoader {
         // If the nodes have not been defined then initialise as a new array
         if (nodes == null) nodes = new ArrayList<>();
 
+        if (parallelism > 1 && edgeFile.length() >= minParallelFileSize) return loadEdgesInParallel(nodes);
+
         // Ensure the file exists
-        Scanner fileScanner;
+        BufferedReader reader;
         try {
-            fileScanner = new Scanner(edgeFile);
+            reader = new BufferedReader(new FileReader(edgeFile));
         } catch (FileNotFoundException e) {
             throw new InvalidFileException("Edge file does not exist.");
         }
@@ -199,22 +258,408 @@ public class DataLoader {
         // not sequential. They do, however, have to be above 0.
         int nextID = getMaxID(nodes) + 1;
 
-        // Defaults if values are not set in the first line
-        Boolean directed = false; // true if directed, false if undirected, null if mixed
-        ArrayList<Boolean> mixedDirections = null; // for each edge true if directed, false if not
-        boolean weighted = true; // true if some edges may contain weights, false if there are no weights
-
-        String nodeDelimiter = null, directedDelimiter = null, undirectedDelimiter = null, weightDelimiter = null;
+        // Index the nodes by name so that the nodes of each edge can be found without searching every node. New nodes
+        // are added to the index as they are created.
+        HashMap<String, Node> nodesByName = indexNodesByName(nodes);
 
-        ArrayList<String[]> loadedValues = new ArrayList<>();
+        EdgeFormat format = new EdgeFormat();
+        ArrayList<Edge> edges = new ArrayList<>();
         int dataLineNum = 0;
         int fileLineNum = 0;
-        while (fileScanner.hasNextLine()) {
-            String line = fileScanner.nextLine();
-            fileLineNum++;
-            if (line.startsWith(commentPrefix)) continue;
+        try (reader) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                fileLineNum++;
+                if (line.startsWith(commentPrefix)) continue;
+
+                dataLineNum++;
+                if (format.readHeaderLine(dataLineNum, fileLineNum, line)) continue;
+
+                EdgeLine edgeLine = format.parseEdgeLine(fileLineNum, line);
+
+                // Look up whether the nodes already exist, if they don't then create them and add them to the array
+                int node1 = getOrCreateNode(nodes, nodesByName, edgeLine.startName, nextID);
+                if (node1 == nextID) nextID++;
+                int node2 = getOrCreateNode(nodes, nodesByName, edgeLine.endName, nextID);
+                if (node2 == nextID) nextID++;
+
+                // Ensure that the IDs are different
+                if (node1 == node2) throw new InvalidFileException(fileLineNum, "An edge cannot be made from one node to itself");
+
+                edges.add(createEdge(fileLineNum, nodesByName, edgeLine));
+            }
+        } catch (IOException e) {
+            throw new InvalidFileException("Edge file could not be read.");
+        }
+
+        return edges;
+    }
+
+    /**
+     * Load edges from the Edges.txt file using multiple threads, giving the same result as {@link #loadEdges(ArrayList)}.
+     * The header lines and any comments before the first edge are read one line at a time, then the rest of the file
+     * is memory mapped and split into chunks of whole lines which are parsed in parallel. Each chunk keeps its own
+     * index of the node names it uses, in the order they first appear. The chunks are merged in file order, so new
+     * nodes are created and given IDs in the same order as when the file is read one line at a time.
+     * @param nodes the predefined {@link Node Nodes} to be added to with new nodes and read from for existing nodes
+     * @return an ArrayList of {@link Edge Edges}, in the order they are defined in the file
+     */
+    private ArrayList<Edge> loadEdgesInParallel(ArrayList<Node> nodes) {
+        int nextID = getMaxID(nodes) + 1;
+        HashMap<String, Node> nodesByName = indexNodesByName(nodes);
+
+        // FileReader decodes with the default charset, so the chunks are decoded with it too
+        Charset charset = Charset.defaultCharset();
+        EdgeFormat format = new EdgeFormat();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try (FileChannel channel = FileChannel.open(edgeFile.toPath(), StandardOpenOption.READ)) {
+            EdgeHeader header = readEdgeHeader(channel, format, charset);
+            List<EdgeChunk> chunks = splitIntoChunks(channel, header.length);
+
+            // Count the lines in each chunk first so that every chunk knows the line number of its first line, which
+            // is needed to report invalid lines
+            runInParallel(executor, chunks, chunk -> chunk.countLines(channel));
+            int fileLineNum = header.lineCount;
+            for (EdgeChunk chunk : chunks) {
+                chunk.firstLineNum = fileLineNum + 1;
+                fileLineNum += chunk.lineCount;
+            }
+
+            runInParallel(executor, chunks, chunk -> chunk.parse(channel, format, charset));
+
+            // Look up or create the nodes of each chunk in file order. A chunk lists its names in the order they first
+            // appear, so new nodes are given the same IDs as they would be when reading one line at a time.
+            int edgeCount = 0;
+            for (EdgeChunk chunk : chunks) {
+                chunk.nodes = new Node[chunk.names.size()];
+                for (int i = 0; i < chunk.nodes.length; i++) {
+                    String name = chunk.names.get(i);
+                    if (getOrCreateNode(nodes, nodesByName, name, nextID) == nextID) nextID++;
+                    chunk.nodes[i] = nodesByName.get(name);
+                }
+                edgeCount += chunk.edgeCount;
+            }
+
+            runInParallel(executor, chunks, this::createEdges);
+
+            ArrayList<Edge> edges = new ArrayList<>(edgeCount);
+            for (EdgeChunk chunk : chunks) edges.addAll(chunk.edges);
+            return edges;
+        } catch (NoSuchFileException e) {
+            throw new InvalidFileException("Edge file does not exist.");
+        } catch (IOException e) {
+            throw new InvalidFileException("Edge file could not be read.");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Read the header lines of the Edges.txt file, and any comments between them, into a format. Reading stops at the
+     * start of the first line that defines an edge.
+     * @param channel the channel to read the file from
+     * @param format the format to read the header into
+     * @param charset the charset used to decode each line
+     * @return the number of bytes and lines read before the first edge
+     */
+    private static EdgeHeader readEdgeHeader(FileChannel channel, EdgeFormat format, Charset charset) throws IOException {
+        // The stream is not closed as that would close the channel
+        InputStream in = new BufferedInputStream(Channels.newInputStream(channel));
+        ByteArrayOutputStream lineBytes = new ByteArrayOutputStream();
+        EdgeHeader header = new EdgeHeader();
+        int dataLineNum = 0;
+        int consumed;
+        while ((consumed = readLine(in, lineBytes)) != -1) {
+            String line = lineBytes.toString(charset);
+            if (!line.startsWith(commentPrefix)) {
+                dataLineNum++;
+                if (!format.readHeaderLine(dataLineNum, header.lineCount + 1, line)) break;
+            }
+            header.lineCount++;
+            header.length += consumed;
+        }
+        return header;
+    }
+
+    /**
+     * Read a line from a stream, accepting the same line breaks as {@link BufferedReader#readLine()}.
+     * @param in the stream to read from, must support {@link InputStream#mark(int)}
+     * @param line emptied and then filled with the bytes of the line, not including the line break
+     * @return the number of bytes read including the line break, or -1 if the end of the stream had been reached
+     */
+    private static int readLine(InputStream in, ByteArrayOutputStream line) throws IOException {
+        line.reset();
+        int consumed = 0;
+        int b;
+        while ((b = in.read()) != -1) {
+            consumed++;
+            if (b == '\n') return consumed;
+            if (b == '\r') {
+                in.mark(1);
+                if (in.read() == '\n') return consumed + 1;
+                in.reset();
+                return consumed;
+            }
+            line.write(b);
+        }
+        return consumed == 0 ? -1 : consumed;
+    }
+
+    /**
+     * Split the Edges.txt file into chunks that each start at the start of a line and end after a line break or at
+     * the end of the file. Chunks are sized so that each thread is given several chunks.
+     * @param channel the channel to read the file from
+     * @param start the position to start the first chunk at
+     * @return the chunks, in file order
+     */
+    private List<EdgeChunk> splitIntoChunks(FileChannel channel, long start) throws IOException {
+        long size = channel.size();
+        long chunkSize = (size - start) / ((long) parallelism * chunksPerThread) + 1;
+        chunkSize = Math.min(maxChunkSize, Math.max(minChunkSize, chunkSize));
+
+        ArrayList<EdgeChunk> chunks = new ArrayList<>();
+        while (start < size) {
+            long end = findLineStart(channel, Math.min(size, start + chunkSize), size);
+            // A mapped chunk cannot be larger than the largest array
+            if (end - start > Integer.MAX_VALUE) throw new InvalidFileException("Edge file contains a line that is too long to be read.");
+            chunks.add(new EdgeChunk(start, end));
+            start = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * Find the start of the first line that begins at or after a position. A "\r\n" line break is never split.
+     * @param channel the channel to read the file from
+     * @param position the position to search from
+     * @param size the size of the file
+     * @return the position after the first line break found, or the size of the file if there is none
+     */
+    private static long findLineStart(FileChannel channel, long position, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        boolean afterReturn = false;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) break;
+            for (int i = 0; i < read; i++) {
+                byte b = buffer.get(i);
+                if (afterReturn) return b == '\n' ? position + i + 1 : position + i;
+                if (b == '\n') return position + i + 1;
+                if (b == '\r') afterReturn = true;
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    /**
+     * Create the edges of a chunk once its nodes have been looked up.
+     * @param chunk the parsed chunk
+     */
+    private void createEdges(EdgeChunk chunk) {
+        ArrayList<Edge> edges = new ArrayList<>(chunk.edgeCount);
+        for (int i = 0; i < chunk.edgeCount; i++) {
+            Node node1 = chunk.nodes[chunk.startNodes[i]];
+            Node node2 = chunk.nodes[chunk.endNodes[i]];
+            edges.add(createEdge(chunk.lineNums[i], node1, node2, chunk.weights[i], chunk.directed[i]));
+        }
+        chunk.edges = edges;
+    }
+
+    /**
+     * Run a task on every chunk using an executor and wait for all of them to finish. If any task fails then the
+     * exception of the first chunk in the file to fail is thrown, so the first invalid line is the one reported.
+     * @param executor the executor to run the tasks on
+     * @param chunks the chunks to run the task on
+     * @param task the task to run
+     */
+    private static void runInParallel(ExecutorService executor, List<EdgeChunk> chunks, ChunkTask task) throws IOException {
+        ArrayList<Callable<Void>> callables = new ArrayList<>(chunks.size());
+        for (EdgeChunk chunk : chunks) callables.add(() -> {
+            task.run(chunk);
+            return null;
+        });
+
+        try {
+            for (Future<Void> future : executor.invokeAll(callables)) future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InvalidFileException("Loading the edge file was interrupted.");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) throw runtimeException;
+            if (cause instanceof IOException ioException) throw ioException;
+            if (cause instanceof Error error) throw error;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Create an {@link Edge edge} from a parsed line of the Edges.txt file. The nodes of the edge must already exist.
+     * @param fileLineNum the line number to be used if an InvalidFileException is thrown
+     * @param nodesByName the nodes used for creating the edge, indexed by name
+     * @param edgeLine the parsed line
+     * @return the {@link Edge edge} created, a {@link WeightedEdge} if the line has a weight
+     */
+    private Edge createEdge(int fileLineNum, HashMap<String, Node> nodesByName, EdgeLine edgeLine) {
+        return createEdge(fileLineNum, nodesByName.get(edgeLine.startName), nodesByName.get(edgeLine.endName),
+                edgeLine.weight, edgeLine.directed);
+    }
+
+    /**
+     * Create an {@link Edge edge} between two loaded nodes.
+     * @param fileLineNum the line number to be used if an InvalidFileException is thrown
+     * @param node1 the node at the start of the edge
+     * @param node2 the node at the end of the edge
+     * @param weight the weight of the edge, or null if it has no weight
+     * @param directed true if the edge is directed, false otherwise
+     * @return the {@link Edge edge} created, a {@link WeightedEdge} if there is a weight
+     */
+    private Edge createEdge(int fileLineNum, Node node1, Node node2, String weight, boolean directed) {
+        if (node1 == null || node2 == null || node1.equals(node2)) throw new InvalidFileException(fileLineNum, (node1 == null || node2 == null) ? "Undefined node" : "Nodes on an edge cannot be the same");
+
+        try {
+            if (weight != null) return new WeightedEdge(node1, node2, directed, weight);
+            return new Edge(node1, node2, directed);
+        } catch (InvalidEdgeException e) {
+            throw new InvalidFileException(fileLineNum, "A created edge was not valid");
+        }
+    }
+
+    /**
+     * Create an index of nodes by their names. If two nodes share a name then the later node is indexed.
+     * @param nodes the nodes to index
+     * @return a map from the name of each node to the node
+     * @throws InvalidFileException if any node has an ID less than 0
+     */
+    private HashMap<String, Node> indexNodesByName(ArrayList<Node> nodes) {
+        HashMap<String, Node> nodesByName = new HashMap<>();
+        for (Node node : nodes) {
+            if (node.id() < 0) throw new InvalidFileException("The predefined node \"" + node.name() + "\" has an invalid ID \"" + node.id() + "\", ID must be 0 or greater.");
+            nodesByName.put(node.name(), node);
+        }
+        return nodesByName;
+    }
+
+    /**
+     * Get the ID of the node with a name, creating the node if it does not exist yet.
+     * @param nodes the loaded nodes, a created node is added to the end
+     * @param nodesByName the index of the loaded nodes by name, a created node is added to it
+     * @param name the name of the node
+     * @param nextID the ID to give the node if it is created
+     * @return the ID of the node, equal to {@code nextID} if the node was created
+     */
+    private int getOrCreateNode(ArrayList<Node> nodes, HashMap<String, Node> nodesByName, String name, int nextID) {
+        Node node = nodesByName.get(name);
+        if (node != null) return node.id();
+
+        node = new Node(nextID, name);
+        nodes.add(node);
+        nodesByName.put(name, node);
+        return nextID;
+    }
+
+    /**
+     * Calculate the direction of a line if it is a mixed graph.
+     * @param line the line to find the direction of
+     * @param directedDelimiter the delimiter for a directed line
+     * @param undirectedDelimiter the delimiter for an undirected line
+     * @return true if the line is directed, false if undirected, null if invalid
+     */
+    private static Boolean calcDirectedMixed(String line, String directedDelimiter, String undirectedDelimiter) {
+        int indexDirected = indexOfDelimiter(line, directedDelimiter, 0);
+        int indexUndirected = indexOfDelimiter(line, undirectedDelimiter, 0);
+        // If neither delimiter was found, or either starts at 0 (meaning there is no content before it)
+        if (
+                (indexDirected == -1 && indexUndirected == -1)
+                || indexDirected == 0
+                || indexUndirected == 0
+        ) return null;
+        if (indexDirected == -1) return false;
+        if (indexUndirected == -1) return true;
 
-            dataLineNum++;
+        // If both delimiters are used exist in the file:
+        // If one of the delimiters incorporates the other, like "-" and "->", then take whichever is longer
+        // This means that 1-2 and 1->2 would give different results
+        if (indexDirected == indexUndirected) return directedDelimiter.length() > undirectedDelimiter.length();
+        // If both delimiters are used but at different locations in the line take whichever comes first
+        return indexDirected < indexUndirected;
+    }
+
+    /**
+     * Get the maximum node ID among nodes in an ArrayList.
+     * @param nodes the nodes to search
+     * @return the greatest ID among the nodes
+     */
+    private int getMaxID(ArrayList<Node> nodes) {
+        int maxID = -1;
+        for (Node node : nodes) {
+            if (node.id() > maxID) maxID = node.id();
+        }
+        return maxID;
+    }
+
+    /**
+     * Find the first occurrence of a delimiter in a line. Delimiters are matched literally, characters such as "|" or
+     * "." have no special meaning. An empty delimiter is never found.
+     * @param line the line to search
+     * @param delimiter the delimiter to find
+     * @param fromIndex the index to start searching from
+     * @return the index of the start of the delimiter, or -1 if it was not found
+     */
+    private static int indexOfDelimiter(String line, String delimiter, int fromIndex) {
+        if (delimiter.isEmpty()) return -1;
+        return line.indexOf(delimiter, fromIndex);
+    }
+
+    /**
+     * Load the delimiter from a value the follows the pattern "\"(.*)\"".
+     * @param lineNum the line number to be used if an InvalidFileException is thrown
+     * @param value the value to be loaded from
+     * @return the value stripped of the quotes that were surrounding it
+     * @throws InvalidFileException if the value does not start and end with quotes
+     */
+    private static String loadDelimiter(int lineNum, String value) throws InvalidFileException {
+        if (!value.startsWith("\"") || !value.endsWith("\""))
+            throw new InvalidFileException(lineNum, "Line is defining a delimiter but not surrounded by quotes (\"\")");
+        return value.replaceAll("\"(.*)\"", "$1");
+    }
+
+    /**
+     * A single edge read from a line of the Edges.txt file, with whitespace removed from each value.
+     */
+    private static class EdgeLine {
+        private final String startName, endName, weight;
+        private final boolean directed;
+
+        private EdgeLine(String startName, String endName, String weight, boolean directed) {
+            this.startName = startName;
+            this.endName = endName;
+            this.weight = weight;
+            this.directed = directed;
+        }
+    }
+
+    /**
+     * The format of an Edges.txt file, defined by the header lines at the start of the file. Once the header has been
+     * read the format is only used to parse lines, so it can be shared between threads.
+     */
+    private static class EdgeFormat {
+        // Defaults if values are not set in the first line
+        private Boolean directed = false; // true if directed, false if undirected, null if mixed
+        private boolean weighted = true; // true if some edges may contain weights, false if there are no weights
+
+        private String nodeDelimiter = null, directedDelimiter = null, undirectedDelimiter = null, weightDelimiter = null;
+
+        /**
+         * Read a line as part of the header if it is one of the first four data lines and the header expects it.
+         * @param dataLineNum the number of the line among lines that are not comments, starting at 1
+         * @param fileLineNum the line number to be used if an InvalidFileException is thrown
+         * @param line the line to read
+         * @return true if the line was part of the header, false if it defines an edge
+         */
+        private boolean readHeaderLine(int dataLineNum, int fileLineNum, String line) {
             if (dataLineNum <= 4) switch (dataLineNum) {
                 case 1 -> {
                     // Line 1: Either follow "directed/undirected/mixed:weighted/unweighted" or declare the delimiter
@@ -226,10 +671,7 @@ public class DataLoader {
                         switch (options[0].toLowerCase()) {
                             case "directed" -> directed = true;
                             case "undirected" -> directed = false;
-                            case "mixed" -> {
-                                directed = null;
-                                mixedDirections = new ArrayList<>();
-                            }
+                            case "mixed" -> directed = null;
                             default -> isInvalidOptions = true;
                         }
                         switch (options[1].toLowerCase()) {
@@ -253,11 +695,11 @@ public class DataLoader {
                         weightDelimiter = value;
                     }
 
-                    if (!isEdgeDefinition) continue;
+                    return !isEdgeDefinition;
                 }
                 case 2 -> {
                     // Line 2: If using default values then the required delimiters have already been defined
-                    if (weightDelimiter != null) break;
+                    if (weightDelimiter != null) return false;
 
                     String value = loadDelimiter(fileLineNum, line);
 
@@ -266,11 +708,11 @@ public class DataLoader {
                     if (directed == null) directedDelimiter = value;
                     else nodeDelimiter = value;
 
-                    continue;
+                    return true;
                 }
                 case 3 -> {
                     // Line 3: If using default values then the required delimiters have already been defined
-                    if (weightDelimiter != null || (directed != null && !weighted)) break;
+                    if (weightDelimiter != null || (directed != null && !weighted)) return false;
 
                     String value = loadDelimiter(fileLineNum, line);
 
@@ -284,216 +726,195 @@ public class DataLoader {
                     // If directed then set the delimiter for edge weights
                     else weightDelimiter = value;
 
-                    continue;
+                    return true;
                 }
                 case 4 -> {
                     // Line 4: Only used if the edges are mixed directions and weighted - used to
                     // define the weight delimiter
                     if (weighted && weightDelimiter == null) {
                         weightDelimiter = loadDelimiter(fileLineNum, line);
-                        continue;
+                        return true;
                     }
                 }
             }
+            return false;
+        }
 
-            String[] lineParts;
+        /**
+         * Parse a line that defines an edge. Does not modify the format.
+         * @param fileLineNum the line number to be used if an InvalidFileException is thrown
+         * @param line the line to parse
+         * @return the parsed edge
+         * @throws InvalidFileException if the line does not define a valid edge
+         */
+        private EdgeLine parseEdgeLine(int fileLineNum, String line) {
+            String delimiter;
+            boolean directedLine;
 
             if (directed == null) {
                 // Mixed
                 if (directedDelimiter == null || undirectedDelimiter == null) throw new InvalidFileException(((directedDelimiter == null) ? "Directed" : "Undirected") + " delimiter has not been defined.");
                 // Get whether line is directed, undirected or invalid
-                Boolean directedLine = calcDirectedMixed(line, directedDelimiter, undirectedDelimiter);
-                if (directedLine == null) throw new InvalidFileException(fileLineNum, "Could not find valid edge delimiter");
-                // Store the direction so it can be used in createEdges
-                mixedDirections.add(directedLine);
-                // Get the line parts from the line
-                lineParts = line.split((directedLine) ? directedDelimiter : undirectedDelimiter, 2);
+                Boolean directedMixed = calcDirectedMixed(line, directedDelimiter, undirectedDelimiter);
+                if (directedMixed == null) throw new InvalidFileException(fileLineNum, "Could not find valid edge delimiter");
+                directedLine = directedMixed;
+                delimiter = directedLine ? directedDelimiter : undirectedDelimiter;
             } else {
                 // Directed/Undirected
-                if (line.indexOf(nodeDelimiter) <= 0) throw new InvalidFileException(fileLineNum, "Could not find valid edge delimiter");
-                // Get hte line parts from the line
-                lineParts = line.split(nodeDelimiter, 2);
+                if (nodeDelimiter == null) throw new InvalidFileException("Node delimiter has not been defined.");
+                directedLine = directed;
+                delimiter = nodeDelimiter;
             }
 
-            // Ensure proper number of parts
-            if (lineParts.length < 2) throw new InvalidFileException(fileLineNum, "Only one node defined");
+            int nodeIndex = indexOfDelimiter(line, delimiter, 0);
+            if (nodeIndex <= 0) throw new InvalidFileException(fileLineNum, "Could not find valid edge delimiter");
+            int endStart = nodeIndex + delimiter.length();
 
             // If the graph is weighted then get the weight if one exists
-            if (weighted) {
-                String[] secondParts = lineParts[1].split(weightDelimiter, 2);
-                if (secondParts.length == 0) throw new InvalidFileException(fileLineNum, "Only one node defined");
-                else if (secondParts.length == 2)
-                    lineParts = new String[]{lineParts[0], secondParts[0], secondParts[1]};
+            int weightIndex = -1;
+            if (weighted && weightDelimiter != null) weightIndex = indexOfDelimiter(line, weightDelimiter, endStart);
+
+            // Get the parts of the line, removing whitespace
+            String startName = line.substring(0, nodeIndex).trim();
+            String endName, weight = null;
+            if (weightIndex == -1) endName = line.substring(endStart).trim();
+            else {
+                endName = line.substring(endStart, weightIndex).trim();
+                weight = line.substring(weightIndex + weightDelimiter.length()).trim();
             }
 
-            // Remove whitespace
-            trimParts(lineParts);
-
             // If the node names are the same or empty
-            if (lineParts[0].equals(lineParts[1]) || lineParts[0].equals("") || lineParts[1].equals(""))
-                throw new InvalidFileException(fileLineNum, ((lineParts[0].equals(lineParts[1])) ? "Nodes on an edge cannot be the same" : "Empty node name"));
-
-            // Search the existing nodes for if the node already exists, if it doesn't then create one and add it to the array
-            int node1 = -1, node2 = -1;
-            for (Node node : nodes) {
-                if (node.id() < 0) throw new InvalidFileException(fileLineNum, "The predefined node \"" + node.name() + "\" has an invalid ID \"" + node.id() + "\", ID must be 0 or greater.");
-                if (node.name().equals(lineParts[0])) node1 = node.id();
-                if (node.name().equals(lineParts[1])) node2 = node.id();
-            }
-
-            if (node1 == -1) {
-                nodes.add(new Node((node1 = nextID++), lineParts[0]));
-                System.out.println("Node created '" + lineParts[0] + "' with id " + node1);
-            }
-            if (node2 == -1) {
-                nodes.add(new Node((node2 = nextID++), lineParts[1]));
-                System.out.println("Node created '" + lineParts[1] + "' with id " + node2);
-            }
-
-            // Ensure that the IDs are different
-            if (node1 == node2) throw new InvalidFileException(fileLineNum, "An edge cannot be made from one node to itself");
-
-            loadedValues.add(lineParts);
-        }
-        fileScanner.close();
-
-        // If the graph is mixed then use the mixed directions to create edges, otherwise just use directed
-        if (directed == null) return createEdges(nodes, loadedValues, mixedDirections);
-        return createEdges(nodes, loadedValues, directed);
-    }
-
-    /**
-     * Calculate the direction of a line if it is a mixed graph.
-     * @param line the line to find the direction of
-     * @param directedDelimiter the delimiter for a directed line
-     * @param undirectedDelimiter the delimiter for an undirected line
-     * @return true if the line is directed, false if undirected, null if invalid
-     */
-    private Boolean calcDirectedMixed(String line, String directedDelimiter, String undirectedDelimiter) {
-        int indexDirected = line.indexOf(directedDelimiter);
-        int indexUndirected = line.indexOf(undirectedDelimiter);
-        // If neither delimiter was found, or either starts at 0 (meaning there is no content before it)
-        if (
-                (indexDirected == -1 && indexUndirected == -1)
-                || indexDirected == 0
-                || indexUndirected == 0
-        ) return null;
-        if (indexDirected == -1) return false;
-        if (indexUndirected == -1) return true;
+            if (startName.equals(endName) || startName.equals("") || endName.equals(""))
+                throw new InvalidFileException(fileLineNum, ((startName.equals(endName)) ? "Nodes on an edge cannot be the same" : "Empty node name"));
 
-        // If both delimiters are used exist in the file:
-        // If one of the delimiters incorporates the other, like "-" and "->", then take whichever is longer
-        // This means that 1-2 and 1->2 would give different results
-        if (indexDirected == indexUndirected) return directedDelimiter.length() > undirectedDelimiter.length();
-        // If both delimiters are used but at different locations in the line take whichever comes first
-        return indexDirected < indexUndirected;
-    }
-
-    /**
-     * Get the maximum node ID among nodes in an ArrayList.
-     * @param nodes the nodes to search
-     * @return the greatest ID among the nodes
-     */
-    private int getMaxID(ArrayList<Node> nodes) {
-        int maxID = -1;
-        for (Node node : nodes) {
-            if (node.id() > maxID) maxID = node.id();
+            return new EdgeLine(startName, endName, weight, directedLine);
         }
-        return maxID;
     }
 
     /**
-     * Remove leading and trailing whitespace from all strings in an array.
-     * @param parts the array to trim
+     * The extent of the header at the start of an Edges.txt file, including any comments before the first edge.
      */
-    private void trimParts(String[] parts) {
-        for (int i = 0; i < parts.length; i++) parts[i] = parts[i].trim();
+    private static class EdgeHeader {
+        private long length = 0;
+        private int lineCount = 0;
     }
 
     /**
-     * Load the delimiter from a value the follows the pattern "\"(.*)\"".
-     * @param lineNum the line number to be used if an InvalidFileException is thrown
-     * @param value the value to be loaded from
-     * @return the value stripped of the quotes that were surrounding it
-     * @throws InvalidFileException if the value does not start and end with quotes
+     * A task run on each chunk of an Edges.txt file by {@link #runInParallel(ExecutorService, List, ChunkTask)}.
      */
-    private String loadDelimiter(int lineNum, String value) throws InvalidFileException {
-        if (!value.startsWith("\"") || !value.endsWith("\""))
-            throw new InvalidFileException(lineNum, "Line is defining a delimiter but not surrounded by quotes (\"\")");
-        return value.replaceAll("\"(.*)\"", "$1");
+    private interface ChunkTask {
+        void run(EdgeChunk chunk) throws IOException;
     }
 
     /**
-     * Create {@link Edge edges} from processed data from the Edges.txt file for a directed/undirected graph using
-     * {@link #createEdges(ArrayList, ArrayList, boolean, ArrayList) createEdges()}.
-     * @param nodes the nodes used for creating the edges
-     * @param loadedValues the processed data from a file
-     * @param directed true if the edges are directed, false otherwise
-     * @return the {@link Edge edges} created
-     * @see #createEdges(ArrayList, ArrayList, ArrayList)
+     * A section of an Edges.txt file made of whole lines, parsed independently of the other chunks. Nodes are
+     * referred to by their index in the names used by the chunk until the chunks are merged.
      */
-    private ArrayList<Edge> createEdges(ArrayList<Node> nodes, ArrayList<String[]> loadedValues, boolean directed) {
-        return createEdges(nodes, loadedValues, directed, null);
-    }
-
-    /**
-     * Create {@link Edge edges} from processed data from the Edges.txt file for a graph with a mix of directed and
-     * undirected edges {@link #createEdges(ArrayList, ArrayList, boolean, ArrayList) createEdges()}.
-     * @param nodes the nodes used for creating the edges
-     * @param loadedValues the processed data from a file
-     * @param mixedDirections whether each edge in the {@code loadedValues} is directed or not, must be the same
-     *                        length as {@code loadedValues}
-     * @return the {@link Edge edges} created
-     * @see #createEdges(ArrayList, ArrayList, boolean)
-     */
-    private ArrayList<Edge> createEdges(ArrayList<Node> nodes, ArrayList<String[]> loadedValues, ArrayList<Boolean> mixedDirections) {
-        if (mixedDirections == null) throw new InvalidFileException("Cannot create edges with invalid directions");
-        return createEdges(nodes, loadedValues, true, mixedDirections);
-    }
+    private static class EdgeChunk {
+        private final long start, end;
+        private int firstLineNum, lineCount;
+
+        // The names of the nodes used by the chunk in the order they first appear, and the index of each name
+        private final ArrayList<String> names = new ArrayList<>();
+        private final HashMap<String, Integer> nameIndexes = new HashMap<>();
+
+        // The parsed edges, each weight is null if the edge has no weight
+        private int edgeCount = 0;
+        private int[] startNodes = new int[16], endNodes = new int[16], lineNums = new int[16];
+        private String[] weights = new String[16];
+        private boolean[] directed = new boolean[16];
+
+        // Set once the chunks have been merged, the node for each name and then the created edges
+        private Node[] nodes;
+        private ArrayList<Edge> edges;
+
+        private EdgeChunk(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
 
-    /**
-     * Create {@link Edge edges} from processed data from the Edges.txt file for a graph with either a mix of directed
-     * and undirected edges or a graph of all directed/undirected edges.
-     * @param nodes the nodes used for creating the edges
-     * @param loadedValues the processed data from a file
-     * @param directed true if the edges are directed, false otherwise. This value is ignored if mixedDirections is
-     *                 not null
-     * @param mixedDirections whether each edge in the {@code loadedValues} is directed or not, must be the same
-     *                        length as {@code loadedValues}. If this parameter is null then the value in parameter
-     *                        {@code directed} will be used for each node instead
-     * @return the {@link Edge edges} created
-     * @see #createEdges(ArrayList, ArrayList, boolean)
-     * @see #createEdges(ArrayList, ArrayList, ArrayList)
-     */
-    private ArrayList<Edge> createEdges(ArrayList<Node> nodes, ArrayList<String[]> loadedValues, boolean directed, ArrayList<Boolean> mixedDirections) {
-        if (mixedDirections != null && loadedValues.size() != mixedDirections.size()) throw new InvalidFileException("Cannot create edges with invalid directions");
+        private MappedByteBuffer map(FileChannel channel) throws IOException {
+            return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        }
 
-        ArrayList<Edge> edges = new ArrayList<>();
-        for (int lineNum = 0; lineNum < loadedValues.size(); lineNum++) {
-            String[] line = loadedValues.get(lineNum);
-            if (line.length > 3) throw new InvalidFileException("Line data invalid for data line " + lineNum);
-
-            Node node1 = null, node2 = null;
-            for (Node node : nodes) {
-                if (node.name().equals(line[0])) node1 = node;
-                if (node.name().equals(line[1])) node2 = node;
+        /**
+         * Count the lines in the chunk, using the same line breaks as {@link #parse(FileChannel, EdgeFormat, Charset)}.
+         * @param channel the channel to read the file from
+         */
+        private void countLines(FileChannel channel) throws IOException {
+            MappedByteBuffer buffer = map(channel);
+            int length = buffer.limit();
+            int count = 0;
+            for (int i = 0; i < length; i++) {
+                byte b = buffer.get(i);
+                if (b == '\n' || (b == '\r' && (i + 1 == length || buffer.get(i + 1) != '\n'))) count++;
             }
-            if (node1 == null || node2 == null || node1.equals(node2)) throw new InvalidFileException((node1 == null || node2 == null) ? "Undefined node" : "Nodes on an edge cannot be the same");
+            // The last line of the file may not end with a line break
+            if (length > 0 && buffer.get(length - 1) != '\n' && buffer.get(length - 1) != '\r') count++;
+            lineCount = count;
+        }
 
-            boolean edgeDirected = directed;
-            if (mixedDirections != null) {
-                edgeDirected = mixedDirections.get(lineNum);
+        /**
+         * Parse every line of the chunk that is not a comment as an edge. The line numbers of the chunk must have
+         * been set.
+         * @param channel the channel to read the file from
+         * @param format the format of the file, read from the header
+         * @param charset the charset used to decode each line
+         * @throws InvalidFileException if a line does not define a valid edge
+         */
+        private void parse(FileChannel channel, EdgeFormat format, Charset charset) throws IOException {
+            MappedByteBuffer buffer = map(channel);
+            int length = buffer.limit();
+            byte[] lineBytes = new byte[256];
+            int fileLineNum = firstLineNum - 1;
+            int lineStart = 0;
+            while (lineStart < length) {
+                int lineEnd = lineStart;
+                byte b = 0;
+                while (lineEnd < length && (b = buffer.get(lineEnd)) != '\n' && b != '\r') lineEnd++;
+
+                int lineLength = lineEnd - lineStart;
+                if (lineLength > lineBytes.length) lineBytes = new byte[Math.max(lineLength, lineBytes.length * 2)];
+                buffer.get(lineStart, lineBytes, 0, lineLength);
+                String line = new String(lineBytes, 0, lineLength, charset);
+                fileLineNum++;
+
+                // Move past the line break, treating "\r\n" as one line break
+                lineStart = lineEnd + 1;
+                if (b == '\r' && lineStart < length && buffer.get(lineStart) == '\n') lineStart++;
+
+                if (line.startsWith(commentPrefix)) continue;
+
+                EdgeLine edgeLine = format.parseEdgeLine(fileLineNum, line);
+                addEdge(indexOfName(edgeLine.startName), indexOfName(edgeLine.endName), edgeLine, fileLineNum);
             }
+        }
 
-            try {
-                if (line.length == 3) edges.add(new WeightedEdge(node1, node2, edgeDirected, line[2]));
-                else edges.add(new Edge(node1, node2, edgeDirected));
-            } catch (InvalidEdgeException e) {
-                throw new InvalidFileException("A created edge was not valid");
+        private int indexOfName(String name) {
+            Integer index = nameIndexes.get(name);
+            if (index == null) {
+                index = names.size();
+                names.add(name);
+                nameIndexes.put(name, index);
             }
+            return index;
         }
 
-        return edges;
+        private void addEdge(int startNode, int endNode, EdgeLine edgeLine, int fileLineNum) {
+            if (edgeCount == startNodes.length) {
+                int capacity = edgeCount * 2;
+                startNodes = Arrays.copyOf(startNodes, capacity);
+                endNodes = Arrays.copyOf(endNodes, capacity);
+                lineNums = Arrays.copyOf(lineNums, capacity);
+                weights = Arrays.copyOf(weights, capacity);
+                directed = Arrays.copyOf(directed, capacity);
+            }
+            startNodes[edgeCount] = startNode;
+            endNodes[edgeCount] = endNode;
+            lineNums[edgeCount] = fileLineNum;
+            weights[edgeCount] = edgeLine.weight;
+            directed[edgeCount] = edgeLine.directed;
+            edgeCount++;
+        }
     }
 }
-
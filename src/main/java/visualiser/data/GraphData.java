@@ -5,10 +5,23 @@ import visualiser.data.elements.Node;
 import visualiser.data.exceptions.InvalidDataException;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
 
+/**
+ * The nodes and edges of a graph. Each node has an index, its position in the {@link #getNodeView() node list}, which
+ * can be found from its ID in constant time.
+ */
 public class GraphData {
     private final ArrayList<Node> nodes;
     private final ArrayList<Edge> edges;
+    /**The index of each node, keyed by the node's ID. If more than one node has the same ID, the first is kept.*/
+    private final HashMap<Integer, Integer> nodeIndices = new HashMap<>();
+    private final List<Node> nodeView;
+    private final List<Edge> edgeView;
+    /**The topology of the graph, built the first time it is needed.*/
+    private GraphTopology topology = null;
 
     /**
      * Create a GraphData object using the graph's {@link Edge edges}. Nodes are automatically loaded from the edges.
@@ -27,15 +40,33 @@ public class GraphData {
      * @param edges the edges in the graph
      */
     public GraphData(ArrayList<Node> nodes, ArrayList<Edge> edges) {
+        this(nodes, edges, true);
+    }
+
+    /**
+     * Create a GraphData object using the graph's {@link Edge edges} and {@link Node nodes}, optionally without
+     * searching the edges for nodes that are missing from {@code nodes}. Searching can be skipped when the nodes are
+     * already known to contain every node on the edges, such as nodes read from a {@link BinaryGraphReader binary
+     * graph file}.
+     * @param nodes any nodes in the graph, any isolated nodes
+     * @param edges the edges in the graph
+     * @param loadNodesFromEdges true to add any nodes on the edges that are not in {@code nodes}
+     */
+    GraphData(ArrayList<Node> nodes, ArrayList<Edge> edges, boolean loadNodesFromEdges) {
         if (edges == null) throw new InvalidDataException();
         if (nodes == null) this.nodes = new ArrayList<>();
         else this.nodes = nodes;
-        getNodesFrom(edges);
+        for (int i = 0; i < this.nodes.size(); i++) nodeIndices.putIfAbsent(this.nodes.get(i).id(), i);
+        if (loadNodesFromEdges) getNodesFrom(edges);
 
         this.edges = edges;
+        nodeView = Collections.unmodifiableList(this.nodes);
+        edgeView = Collections.unmodifiableList(edges);
     }
 
     /**
+     * Get the list of nodes held by the graph data. The list must not be changed, as the index of each node would no
+     * longer match its position, use {@link #getNodeView()} where the list does not need to be an {@link ArrayList}.
      * @return the nodes in the graph data, including all isolated nodes and nodes on edges
      */
     public ArrayList<Node> getNodes() {
@@ -43,20 +74,99 @@ public class GraphData {
     }
 
     /**
+     * Get the list of edges held by the graph data. The list must not be changed, use {@link #getEdgeView()} where
+     * the list does not need to be an {@link ArrayList}.
      * @return the edges in the graph data
      */
     public ArrayList<Edge> getEdges() {
         return edges;
     }
 
+    /**
+     * @return a read-only view of the nodes in the graph data, in index order. The nodes are not copied.
+     */
+    public List<Node> getNodeView() {
+        return nodeView;
+    }
+
+    /**
+     * @return a read-only view of the edges in the graph data. The edges are not copied.
+     */
+    public List<Edge> getEdgeView() {
+        return edgeView;
+    }
+
+    /**
+     * @return the number of nodes in the graph data
+     */
+    public int nodeCount() {
+        return nodes.size();
+    }
+
+    /**
+     * @return the number of edges in the graph data
+     */
+    public int edgeCount() {
+        return edges.size();
+    }
+
+    /**
+     * @param index the index of the node, from 0 to {@link #nodeCount()} - 1
+     * @return the node at the index
+     */
+    public Node getNode(int index) {
+        return nodes.get(index);
+    }
+
+    /**
+     * @param index the position of the edge, from 0 to {@link #edgeCount()} - 1
+     * @return the edge at the position
+     */
+    public Edge getEdge(int index) {
+        return edges.get(index);
+    }
+
+    /**
+     * Find the index of a node from its ID.
+     * @param nodeID the ID of the node
+     * @return the index of the first node with the ID, or -1 if there is no such node
+     */
+    public int indexOf(int nodeID) {
+        Integer index = nodeIndices.get(nodeID);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @param nodeID the ID of the node
+     * @return true if the graph data has a node with the ID
+     */
+    public boolean containsNode(int nodeID) {
+        return nodeIndices.containsKey(nodeID);
+    }
+
+    /**
+     * Get the connections between the nodes in compressed sparse row form. The topology is built the first time this
+     * is called and shared by every later call.
+     * @return the topology of the graph data
+     * @throws InvalidDataException if an edge has a node that is not in the graph data
+     */
+    public GraphTopology getTopology() {
+        if (topology == null) topology = GraphTopology.fromGraphData(this);
+        return topology;
+    }
+
     /**
      * Load all nodes that have not already been loaded from the edges.
      * @param edges the edges to search for unloaded nodes
      */
     private void getNodesFrom(ArrayList<Edge> edges) {
         for (Edge edge : edges) {
-            if (!nodes.contains(edge.startNode())) nodes.add(edge.startNode());
-            if (!nodes.contains(edge.endNode())) nodes.add(edge.endNode());
+            addIfMissing(edge.startNode());
+            addIfMissing(edge.endNode());
         }
     }
+
+    private void addIfMissing(Node node) {
+        if (nodeIndices.putIfAbsent(node.id(), nodes.size()) == null) nodes.add(node);
+    }
 }
\ No newline at end of file
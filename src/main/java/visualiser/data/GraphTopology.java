@@ -0,0 +1,223 @@
+package visualiser.data;
+
+import visualiser.data.elements.Edge;
+import visualiser.data.elements.WeightedEdge;
+import visualiser.data.exceptions.InvalidDataException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * The connections of a graph in compressed sparse row form, stored in primitive arrays that are never changed once the
+ * topology has been built. Nodes are identified by their index and edges by their position in the list they were built
+ * from.
+ * <br/>Each edge is stored once, in a slot after the slots of the edges before it that start at the same node. The
+ * edges starting at node {@code i} are in slots {@code offsets()[i]} to {@code offsets()[i + 1] - 1}. Each slot holds
+ * the index of the node at the end of the edge, whether the edge is directed, the index of the edge's weight in
+ * {@link #weights()} and the position of the edge in its list.
+ * <br/>Storing a graph this way takes a few bytes for each edge instead of an object, and the edges of a node are next
+ * to each other in memory.
+ */
+public class GraphTopology {
+    /**The weight index of an edge that has no weight.*/
+    public static final int NO_WEIGHT = -1;
+
+    private final int[] offsets;
+    private final int[] targets;
+    private final int[] edgePositions;
+    private final int[] weightIndices;
+    /**One bit for each slot, set if the edge in the slot is directed.*/
+    private final long[] directedBits;
+    /**Every distinct edge weight, in the order they were first found.*/
+    private final String[] weights;
+
+    private GraphTopology(int[] offsets, int[] targets, int[] edgePositions, int[] weightIndices, long[] directedBits,
+                          String[] weights) {
+        this.offsets = offsets;
+        this.targets = targets;
+        this.edgePositions = edgePositions;
+        this.weightIndices = weightIndices;
+        this.directedBits = directedBits;
+        this.weights = weights;
+    }
+
+    /**
+     * Build the topology of graph data. Node indices match {@link GraphData#indexOf(int)} and edge positions match
+     * {@link GraphData#getEdge(int)}.
+     * @param graphData the graph data
+     * @return the created topology
+     * @throws InvalidDataException if an edge has a node that is not in the graph data
+     */
+    public static GraphTopology fromGraphData(GraphData graphData) {
+        int edgeCount = graphData.edgeCount();
+        int[] starts = new int[edgeCount];
+        int[] ends = new int[edgeCount];
+        boolean[] directed = new boolean[edgeCount];
+        String[] edgeWeights = new String[edgeCount];
+        for (int i = 0; i < edgeCount; i++) {
+            Edge edge = graphData.getEdge(i);
+            starts[i] = indexOf(graphData, edge);
+            ends[i] = graphData.indexOf(edge.endNode().id());
+            if (ends[i] == -1) throw missingNode(edge.endNode());
+            directed[i] = edge.directed();
+            if (edge instanceof WeightedEdge weightedEdge) edgeWeights[i] = weightedEdge.value();
+        }
+        return fromEdges(graphData.nodeCount(), starts, ends, directed, edgeWeights);
+    }
+
+    private static int indexOf(GraphData graphData, Edge edge) {
+        int index = graphData.indexOf(edge.startNode().id());
+        if (index == -1) throw missingNode(edge.startNode());
+        return index;
+    }
+
+    private static InvalidDataException missingNode(Object node) {
+        return new InvalidDataException("The node \"" + node + "\" is on an edge but not in the graph data");
+    }
+
+    /**
+     * Build a topology from the nodes at each end of every edge. The arrays are only read and can be changed
+     * afterwards.
+     * @param nodeCount the number of nodes
+     * @param starts the index of the start node of each edge
+     * @param ends the index of the end node of each edge, must be the same length as {@code starts}
+     * @param directed whether each edge is directed, must be the same length as {@code starts}
+     * @param edgeWeights the weight of each edge, or null for no weight. Can be null if no edge has a weight.
+     * @return the created topology
+     */
+    public static GraphTopology fromEdges(int nodeCount, int[] starts, int[] ends, boolean[] directed,
+                                          String[] edgeWeights) {
+        int edgeCount = starts.length;
+        if (nodeCount < 0) throw new IllegalArgumentException("Node count cannot be less than 0");
+        if (ends.length != edgeCount || directed.length != edgeCount || (edgeWeights != null && edgeWeights.length != edgeCount))
+            throw new IllegalArgumentException("Every edge must have a start, end and direction");
+
+        int[] offsets = new int[nodeCount + 1];
+        for (int i = 0; i < edgeCount; i++) {
+            if (starts[i] < 0 || starts[i] >= nodeCount || ends[i] < 0 || ends[i] >= nodeCount)
+                throw new IllegalArgumentException("Edge " + i + " has a node index outside of the graph");
+            offsets[starts[i] + 1]++;
+        }
+        for (int node = 0; node < nodeCount; node++) offsets[node + 1] += offsets[node];
+
+        // Place each edge after the earlier edges of its start node
+        int[] next = offsets.clone();
+        int[] targets = new int[edgeCount];
+        int[] edgePositions = new int[edgeCount];
+        int[] weightIndices = new int[edgeCount];
+        long[] directedBits = new long[(edgeCount + 63) >>> 6];
+        HashMap<String, Integer> weightIndexes = new HashMap<>();
+        ArrayList<String> weights = new ArrayList<>();
+        for (int i = 0; i < edgeCount; i++) {
+            int slot = next[starts[i]]++;
+            targets[slot] = ends[i];
+            edgePositions[slot] = i;
+            if (directed[i]) directedBits[slot >>> 6] |= 1L << slot;
+
+            String weight = edgeWeights == null ? null : edgeWeights[i];
+            if (weight == null) weightIndices[slot] = NO_WEIGHT;
+            else weightIndices[slot] = weightIndexes.computeIfAbsent(weight, ignored -> {
+                weights.add(weight);
+                return weights.size() - 1;
+            });
+        }
+
+        return new GraphTopology(offsets, targets, edgePositions, weightIndices, directedBits,
+                weights.toArray(new String[0]));
+    }
+
+    /**
+     * @return the number of nodes in the graph
+     */
+    public int nodeCount() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * @return the number of edges in the graph
+     */
+    public int edgeCount() {
+        return targets.length;
+    }
+
+    /**
+     * @param node the index of the node
+     * @return the number of edges starting at the node
+     */
+    public int outDegree(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    /**
+     * @param slot the slot of the edge
+     * @return the index of the node at the end of the edge
+     */
+    public int target(int slot) {
+        return targets[slot];
+    }
+
+    /**
+     * @param slot the slot of the edge
+     * @return true if the edge is directed
+     */
+    public boolean isDirected(int slot) {
+        return (directedBits[slot >>> 6] & (1L << slot)) != 0;
+    }
+
+    /**
+     * @param slot the slot of the edge
+     * @return the position of the edge in the list the topology was built from
+     */
+    public int edgePosition(int slot) {
+        return edgePositions[slot];
+    }
+
+    /**
+     * @param slot the slot of the edge
+     * @return the index of the edge's weight in {@link #weights()}, or {@link #NO_WEIGHT} if it has no weight
+     */
+    public int weightIndex(int slot) {
+        return weightIndices[slot];
+    }
+
+    /**
+     * @param slot the slot of the edge
+     * @return the weight of the edge, or null if it has no weight
+     */
+    public String weight(int slot) {
+        int index = weightIndices[slot];
+        return index == NO_WEIGHT ? null : weights[index];
+    }
+
+    /**
+     * Find the first edge from one node to another.
+     * @param start the index of the node at the start of the edge
+     * @param end the index of the node at the end of the edge
+     * @return the slot of the edge, or -1 if there is no edge from the start node to the end node
+     */
+    public int findEdge(int start, int end) {
+        for (int slot = offsets[start]; slot < offsets[start + 1]; slot++) if (targets[slot] == end) return slot;
+        return -1;
+    }
+
+    /**
+     * @return the first slot of each node's edges, followed by the number of edges. Should not be modified.
+     */
+    public int[] offsets() {
+        return offsets;
+    }
+
+    /**
+     * @return the index of the node at the end of the edge in each slot. Should not be modified.
+     */
+    public int[] targets() {
+        return targets;
+    }
+
+    /**
+     * @return every distinct edge weight, indexed by {@link #weightIndex(int)}. Should not be modified.
+     */
+    public String[] weights() {
+        return weights;
+    }
+}
@@ -79,4 +79,15 @@ public class Edge {
 
         return sameEdgeType && (directedSameNodes || nonDirectedSameNodes);
     }
+
+    /**
+     * @return a hash code consistent with {@link #equals(Object)}, an undirected edge has the same hash code whichever
+     * way round its nodes are
+     */
+    @Override
+    public int hashCode() {
+        int startHash = startNode.hashCode(), endHash = endNode.hashCode();
+        if (directed) return 31 * startHash + endHash;
+        return 31 * Math.min(startHash, endHash) + Math.max(startHash, endHash) + 1;
+    }
 }
@@ -53,4 +53,12 @@ public class Node {
         if (!(o instanceof Node node)) return false;
         return id == node.id;
     }
+
+    /**
+     * @return a hash code consistent with {@link #equals(Object)}, made from the node's ID
+     */
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(id);
+    }
 }
@@ -0,0 +1,72 @@
+package visualiser.data.generator;
+
+import java.util.Random;
+
+/**
+ * Generates scale-free graphs using the Barabasi-Albert preferential attachment model. The graph starts as a complete
+ * graph of {@code edgesPerNode + 1} nodes and every following node connects to {@code edgesPerNode} different existing
+ * nodes, chosen with a probability proportional to their degree. This produces a few highly connected hubs and many
+ * nodes with few connections.
+ */
+public class BarabasiAlbertGenerator implements GraphGenerator {
+    private final int nodeCount;
+    private final int edgesPerNode;
+
+    /**
+     * @param nodeCount the number of nodes
+     * @param edgesPerNode the number of edges created by each new node, must be at least 1 and less than
+     *                     {@code nodeCount}
+     */
+    public BarabasiAlbertGenerator(int nodeCount, int edgesPerNode) {
+        if (edgesPerNode < 1) throw new IllegalArgumentException("Each node must create at least 1 edge");
+        if (edgesPerNode >= nodeCount)
+            throw new IllegalArgumentException("Each node must create fewer edges than there are nodes");
+        this.nodeCount = nodeCount;
+        this.edgesPerNode = edgesPerNode;
+    }
+
+    @Override
+    public GeneratedGraph generate(long seed) {
+        Random random = new Random(seed);
+        int initialNodes = edgesPerNode + 1;
+        long edgeCount = (long) initialNodes * edgesPerNode / 2 + (long) (nodeCount - initialNodes) * edgesPerNode;
+        if (edgeCount * 2 > Integer.MAX_VALUE - 8) throw new IllegalArgumentException("Too many edges to generate");
+        GeneratedGraph.Builder builder = new GeneratedGraph.Builder(nodeCount, edgeCount);
+
+        // Every edge adds both of its nodes to this list, so picking a random entry picks a node with a probability
+        // proportional to its degree
+        int[] endpoints = new int[(int) edgeCount * 2];
+        int endpointCount = 0;
+
+        for (int start = 0; start < initialNodes; start++) {
+            for (int end = start + 1; end < initialNodes; end++) {
+                builder.addEdge(start, end);
+                endpoints[endpointCount++] = start;
+                endpoints[endpointCount++] = end;
+            }
+        }
+
+        int[] targets = new int[edgesPerNode];
+        for (int node = initialNodes; node < nodeCount; node++) {
+            // Choose the targets before adding any edges so that the new node's own edges do not affect the choice
+            for (int i = 0; i < edgesPerNode; i++) {
+                int target;
+                do target = endpoints[random.nextInt(endpointCount)];
+                while (contains(targets, i, target));
+                targets[i] = target;
+            }
+            for (int target : targets) {
+                builder.addEdge(node, target);
+                endpoints[endpointCount++] = node;
+                endpoints[endpointCount++] = target;
+            }
+        }
+
+        return builder.build();
+    }
+
+    private static boolean contains(int[] values, int length, int value) {
+        for (int i = 0; i < length; i++) if (values[i] == value) return true;
+        return false;
+    }
+}
@@ -0,0 +1,62 @@
+package visualiser.data.generator;
+
+import java.util.HashSet;
+import java.util.Random;
+
+/**
+ * Generates uniformly random graphs with a fixed number of nodes and edges, the Erdos-Renyi G(n, m) model. Every pair
+ * of nodes is equally likely to be connected.
+ */
+public class ErdosRenyiGenerator implements GraphGenerator {
+    private final int nodeCount;
+    private final long edgeCount;
+
+    /**
+     * @param nodeCount the number of nodes
+     * @param edgeCount the number of edges, cannot be more than the number of pairs of nodes
+     */
+    public ErdosRenyiGenerator(int nodeCount, long edgeCount) {
+        if (nodeCount < 0 || edgeCount < 0) throw new IllegalArgumentException("Sizes cannot be less than 0");
+        if (edgeCount > pairCount(nodeCount))
+            throw new IllegalArgumentException("A graph of " + nodeCount + " nodes cannot have " + edgeCount + " edges");
+        this.nodeCount = nodeCount;
+        this.edgeCount = edgeCount;
+    }
+
+    @Override
+    public GeneratedGraph generate(long seed) {
+        Random random = new Random(seed);
+        GeneratedGraph.Builder builder = new GeneratedGraph.Builder(nodeCount, edgeCount);
+        long pairs = pairCount(nodeCount);
+
+        if (edgeCount <= pairs / 2) {
+            // Sparse graphs pick random pairs until enough distinct pairs have been found
+            HashSet<Long> chosen = new HashSet<>();
+            while (chosen.size() < edgeCount) {
+                int start = random.nextInt(nodeCount), end = random.nextInt(nodeCount);
+                if (start == end || !chosen.add(pairKey(start, end))) continue;
+                builder.addEdge(start, end);
+            }
+        } else {
+            // Dense graphs pick the pairs that are left out instead, which takes far fewer attempts
+            HashSet<Long> excluded = new HashSet<>();
+            while (excluded.size() < pairs - edgeCount) {
+                int start = random.nextInt(nodeCount), end = random.nextInt(nodeCount);
+                if (start != end) excluded.add(pairKey(start, end));
+            }
+            for (int start = 0; start < nodeCount; start++)
+                for (int end = start + 1; end < nodeCount; end++)
+                    if (!excluded.contains(pairKey(start, end))) builder.addEdge(start, end);
+        }
+
+        return builder.build();
+    }
+
+    private static long pairCount(int nodeCount) {
+        return (long) nodeCount * (nodeCount - 1) / 2;
+    }
+
+    private static long pairKey(int node1, int node2) {
+        return ((long) Math.min(node1, node2) << 32) | Math.max(node1, node2);
+    }
+}
@@ -0,0 +1,132 @@
+package visualiser.data.generator;
+
+import visualiser.data.GraphData;
+import visualiser.data.elements.Edge;
+import visualiser.data.elements.Node;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * An undirected, unweighted graph created by a {@link GraphGenerator}. Nodes are numbered from 0 and edges are stored
+ * as pairs of node numbers in primitive arrays, so graphs with millions of edges can be generated and written to a
+ * file without creating an object for every node and edge.
+ */
+public class GeneratedGraph {
+    private final int nodeCount;
+    private final int[] starts, ends;
+
+    /**
+     * @param nodeCount the number of nodes
+     * @param starts the first node of each edge, the array is used directly
+     * @param ends the second node of each edge, the array is used directly and must be the same length as
+     *             {@code starts}
+     */
+    public GeneratedGraph(int nodeCount, int[] starts, int[] ends) {
+        if (starts.length != ends.length) throw new IllegalArgumentException("Every edge must have a start and end");
+        this.nodeCount = nodeCount;
+        this.starts = starts;
+        this.ends = ends;
+    }
+
+    /**
+     * @return the number of nodes
+     */
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @return the number of edges
+     */
+    public int edgeCount() {
+        return starts.length;
+    }
+
+    /**
+     * @param edge the index of the edge
+     * @return the first node of the edge
+     */
+    public int start(int edge) {
+        return starts[edge];
+    }
+
+    /**
+     * @param edge the index of the edge
+     * @return the second node of the edge
+     */
+    public int end(int edge) {
+        return ends[edge];
+    }
+
+    /**
+     * @return the first node of every edge. Should not be modified.
+     */
+    public int[] starts() {
+        return starts;
+    }
+
+    /**
+     * @return the second node of every edge. Should not be modified.
+     */
+    public int[] ends() {
+        return ends;
+    }
+
+    /**
+     * Get the name given to a node when the graph is converted to {@link GraphData} or written to a file.
+     * @param node the number of the node
+     * @return the name of the node
+     */
+    public static String nameOf(int node) {
+        return Integer.toString(node);
+    }
+
+    /**
+     * Create graph data from the generated graph. Node {@code i} has the ID {@code i} and the name
+     * {@link #nameOf(int) nameOf(i)}, and every edge is undirected.
+     * @return the created graph data
+     */
+    public GraphData toGraphData() {
+        ArrayList<Node> nodes = new ArrayList<>(nodeCount);
+        for (int node = 0; node < nodeCount; node++) nodes.add(new Node(node, nameOf(node)));
+
+        ArrayList<Edge> edges = new ArrayList<>(starts.length);
+        for (int edge = 0; edge < starts.length; edge++)
+            edges.add(new Edge(nodes.get(starts[edge]), nodes.get(ends[edge]), false));
+
+        return new GraphData(nodes, edges);
+    }
+
+    /**
+     * Collects the edges of a graph while it is being generated.
+     */
+    static class Builder {
+        private final int nodeCount;
+        private int[] starts, ends;
+        private int edgeCount = 0;
+
+        Builder(int nodeCount, long expectedEdges) {
+            this.nodeCount = nodeCount;
+            int capacity = (int) Math.max(16, Math.min(expectedEdges, Integer.MAX_VALUE - 8));
+            starts = new int[capacity];
+            ends = new int[capacity];
+        }
+
+        void addEdge(int start, int end) {
+            if (edgeCount == starts.length) {
+                if (edgeCount == Integer.MAX_VALUE - 8) throw new IllegalArgumentException("Too many edges to generate");
+                int capacity = (int) Math.min((long) edgeCount * 2, Integer.MAX_VALUE - 8);
+                starts = Arrays.copyOf(starts, capacity);
+                ends = Arrays.copyOf(ends, capacity);
+            }
+            starts[edgeCount] = start;
+            ends[edgeCount] = end;
+            edgeCount++;
+        }
+
+        GeneratedGraph build() {
+            return new GeneratedGraph(nodeCount, Arrays.copyOf(starts, edgeCount), Arrays.copyOf(ends, edgeCount));
+        }
+    }
+}
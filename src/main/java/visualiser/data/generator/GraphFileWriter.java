@@ -0,0 +1,65 @@
+package visualiser.data.generator;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+
+/**
+ * Writes generated graphs to files that can be read by {@link visualiser.data.DataLoader}.
+ * <br/>The node file lists one node name per line, in order, so that each node is given its number as its ID when
+ * loaded. The edge file declares the graph as undirected and unweighted, followed by one edge per line.
+ */
+public class GraphFileWriter {
+    private static final String delimiter = ";";
+
+    /**
+     * Write a graph to a node file and an edge file. Existing files are overwritten.
+     * @param graph the graph to write
+     * @param nodeFile the file to write the nodes to
+     * @param edgeFile the file to write the edges to
+     * @throws IOException if either file could not be written
+     */
+    public static void write(GeneratedGraph graph, File nodeFile, File edgeFile) throws IOException {
+        writeNodes(graph, nodeFile);
+        writeEdges(graph, edgeFile);
+    }
+
+    /**
+     * Write the nodes of a graph, one name per line. No comments are written as they would change the loaded IDs.
+     * @param graph the graph to write
+     * @param nodeFile the file to write the nodes to
+     * @throws IOException if the file could not be written
+     */
+    public static void writeNodes(GeneratedGraph graph, File nodeFile) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(nodeFile))) {
+            for (int node = 0; node < graph.nodeCount(); node++) {
+                writer.write(GeneratedGraph.nameOf(node));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Write the edges of a graph. Nodes that are not part of any edge are only defined by the node file.
+     * @param graph the graph to write
+     * @param edgeFile the file to write the edges to
+     * @throws IOException if the file could not be written
+     */
+    public static void writeEdges(GeneratedGraph graph, File edgeFile) throws IOException {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(edgeFile))) {
+            writer.write("// Generated graph of " + graph.nodeCount() + " nodes and " + graph.edgeCount() + " edges");
+            writer.newLine();
+            writer.write("undirected:unweighted");
+            writer.newLine();
+            writer.write("\"" + delimiter + "\"");
+            writer.newLine();
+            for (int edge = 0; edge < graph.edgeCount(); edge++) {
+                writer.write(GeneratedGraph.nameOf(graph.start(edge)));
+                writer.write(delimiter);
+                writer.write(GeneratedGraph.nameOf(graph.end(edge)));
+                writer.newLine();
+            }
+        }
+    }
+}
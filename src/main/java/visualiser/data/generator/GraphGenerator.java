@@ -0,0 +1,26 @@
+package visualiser.data.generator;
+
+import visualiser.data.GraphData;
+
+/**
+ * Creates synthetic graphs for testing how the visualiser scales. Every generated graph is undirected, unweighted and
+ * has no duplicate edges or edges from a node to itself.
+ */
+public interface GraphGenerator {
+    /**
+     * Generate a graph. Generating with the same generator settings and seed always creates the same graph.
+     * @param seed the seed of the random choices made by the generator
+     * @return the generated graph
+     */
+    GeneratedGraph generate(long seed);
+
+    /**
+     * Generate a graph and convert it to {@link GraphData}.
+     * @param seed the seed of the random choices made by the generator
+     * @return the generated graph data
+     * @see GeneratedGraph#toGraphData()
+     */
+    default GraphData generateGraphData(long seed) {
+        return generate(seed).toGraphData();
+    }
+}
@@ -0,0 +1,52 @@
+package visualiser.data.generator;
+
+/**
+ * Generates a rectangular grid where every node is connected to the nodes above, below, left and right of it. The
+ * node in row {@code r} and column {@code c} is numbered {@code r * columns + c}. The grid can optionally wrap around
+ * to form a torus. Grids are not random, so the seed is ignored.
+ */
+public class GridGenerator implements GraphGenerator {
+    private final int rows, columns;
+    private final boolean wrap;
+
+    /**
+     * Create a generator for a grid that does not wrap around.
+     * @param rows the number of rows
+     * @param columns the number of columns
+     */
+    public GridGenerator(int rows, int columns) {
+        this(rows, columns, false);
+    }
+
+    /**
+     * @param rows the number of rows
+     * @param columns the number of columns
+     * @param wrap true to connect the last row to the first and the last column to the first, false otherwise
+     */
+    public GridGenerator(int rows, int columns, boolean wrap) {
+        if (rows < 1 || columns < 1) throw new IllegalArgumentException("A grid must have at least 1 row and column");
+        if ((long) rows * columns > Integer.MAX_VALUE) throw new IllegalArgumentException("Too many nodes to generate");
+        this.rows = rows;
+        this.columns = columns;
+        this.wrap = wrap;
+    }
+
+    @Override
+    public GeneratedGraph generate(long seed) {
+        GeneratedGraph.Builder builder = new GeneratedGraph.Builder(rows * columns, (long) rows * columns * 2);
+
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                int node = row * columns + column;
+                if (column + 1 < columns) builder.addEdge(node, node + 1);
+                // Only wrap if it would not duplicate an existing edge or connect a node to itself
+                else if (wrap && columns > 2) builder.addEdge(node, row * columns);
+
+                if (row + 1 < rows) builder.addEdge(node, node + columns);
+                else if (wrap && rows > 2) builder.addEdge(node, column);
+            }
+        }
+
+        return builder.build();
+    }
+}
@@ -0,0 +1,122 @@
+package visualiser.data.generator;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Generates clustered graphs using a stochastic block model. Nodes are split into blocks, numbered block by block,
+ * and each pair of nodes is connected with one probability if they are in the same block and another if they are in
+ * different blocks. A higher probability within blocks than between them creates clusters.
+ * <br/>Rather than testing every pair of nodes, the number of pairs to skip before the next edge is drawn from a
+ * geometric distribution, so the time taken depends on the number of edges created and not the number of pairs.
+ */
+public class StochasticBlockGenerator implements GraphGenerator {
+    private final int[] blockSizes;
+    private final double inProbability, outProbability;
+
+    /**
+     * Create a generator where every block is the same size.
+     * @param blockCount the number of blocks
+     * @param blockSize the number of nodes in each block
+     * @param inProbability the probability that two nodes in the same block are connected
+     * @param outProbability the probability that two nodes in different blocks are connected
+     */
+    public StochasticBlockGenerator(int blockCount, int blockSize, double inProbability, double outProbability) {
+        this(createBlockSizes(blockCount, blockSize), inProbability, outProbability);
+    }
+
+    /**
+     * @param blockSizes the number of nodes in each block
+     * @param inProbability the probability that two nodes in the same block are connected
+     * @param outProbability the probability that two nodes in different blocks are connected
+     */
+    public StochasticBlockGenerator(int[] blockSizes, double inProbability, double outProbability) {
+        if (inProbability < 0 || inProbability > 1 || outProbability < 0 || outProbability > 1)
+            throw new IllegalArgumentException("Probabilities must be between 0 and 1");
+        long nodeCount = 0;
+        for (int blockSize : blockSizes) {
+            if (blockSize < 0) throw new IllegalArgumentException("Block sizes cannot be less than 0");
+            nodeCount += blockSize;
+        }
+        if (nodeCount > Integer.MAX_VALUE) throw new IllegalArgumentException("Too many nodes to generate");
+
+        this.blockSizes = blockSizes.clone();
+        this.inProbability = inProbability;
+        this.outProbability = outProbability;
+    }
+
+    private static int[] createBlockSizes(int blockCount, int blockSize) {
+        if (blockCount < 0) throw new IllegalArgumentException("Block count cannot be less than 0");
+        int[] blockSizes = new int[blockCount];
+        Arrays.fill(blockSizes, blockSize);
+        return blockSizes;
+    }
+
+    @Override
+    public GeneratedGraph generate(long seed) {
+        Random random = new Random(seed);
+        int[] blockStarts = new int[blockSizes.length + 1];
+        for (int block = 0; block < blockSizes.length; block++)
+            blockStarts[block + 1] = blockStarts[block] + blockSizes[block];
+
+        GeneratedGraph.Builder builder = new GeneratedGraph.Builder(blockStarts[blockSizes.length], expectedEdgeCount());
+        for (int block = 0; block < blockSizes.length; block++) {
+            addEdgesWithin(builder, random, blockStarts[block], blockSizes[block]);
+            for (int other = block + 1; other < blockSizes.length; other++)
+                addEdgesBetween(builder, random, blockStarts[block], blockSizes[block], blockStarts[other], blockSizes[other]);
+        }
+        return builder.build();
+    }
+
+    private long expectedEdgeCount() {
+        double expected = 0;
+        for (int block = 0; block < blockSizes.length; block++) {
+            expected += inProbability * blockSizes[block] * (blockSizes[block] - 1d) / 2d;
+            for (int other = block + 1; other < blockSizes.length; other++)
+                expected += outProbability * blockSizes[block] * (double) blockSizes[other];
+        }
+        return (long) expected;
+    }
+
+    /**
+     * Connect each pair of nodes in a block with the in-block probability.
+     */
+    private void addEdgesWithin(GeneratedGraph.Builder builder, Random random, int start, int size) {
+        if (inProbability == 0) return;
+        // Walk through the pairs (v, w) with w < v in order, skipping a random number of pairs between each edge
+        int v = 1;
+        long w = -1;
+        while (v < size) {
+            w += 1 + nextSkip(random, inProbability);
+            while (w >= v && v < size) {
+                w -= v;
+                v++;
+            }
+            if (v < size) builder.addEdge(start + v, start + (int) w);
+        }
+    }
+
+    /**
+     * Connect each pair of nodes with one node in each block with the between-block probability.
+     */
+    private void addEdgesBetween(GeneratedGraph.Builder builder, Random random, int start1, int size1,
+                                 int start2, int size2) {
+        if (outProbability == 0) return;
+        long pairs = (long) size1 * size2;
+        long pair = -1;
+        while (true) {
+            pair += 1 + nextSkip(random, outProbability);
+            if (pair >= pairs) return;
+            builder.addEdge(start1 + (int) (pair / size2), start2 + (int) (pair % size2));
+        }
+    }
+
+    /**
+     * @return the number of pairs to skip before the next connected pair, geometrically distributed
+     */
+    private static long nextSkip(Random random, double probability) {
+        if (probability == 1) return 0;
+        double skip = Math.floor(Math.log(1 - random.nextDouble()) / Math.log(1 - probability));
+        return skip >= Long.MAX_VALUE / 2 ? Long.MAX_VALUE / 2 : (long) skip;
+    }
+}
@@ -0,0 +1,54 @@
+package visualiser.data.generator;
+
+import java.util.Random;
+
+/**
+ * Generates random trees. Node 0 is the root and every following node is connected to a randomly chosen earlier node
+ * that still has room for another child, so the tree is always connected and has one fewer edge than it has nodes.
+ */
+public class TreeGenerator implements GraphGenerator {
+    private final int nodeCount;
+    private final int maxChildren;
+
+    /**
+     * Create a generator for trees where a node can have any number of children.
+     * @param nodeCount the number of nodes
+     */
+    public TreeGenerator(int nodeCount) {
+        this(nodeCount, 0);
+    }
+
+    /**
+     * @param nodeCount the number of nodes
+     * @param maxChildren the most children that a node can have, or 0 for no limit
+     */
+    public TreeGenerator(int nodeCount, int maxChildren) {
+        if (nodeCount < 0) throw new IllegalArgumentException("Node count cannot be less than 0");
+        if (maxChildren < 0) throw new IllegalArgumentException("Max children cannot be less than 0");
+        this.nodeCount = nodeCount;
+        this.maxChildren = maxChildren;
+    }
+
+    @Override
+    public GeneratedGraph generate(long seed) {
+        Random random = new Random(seed);
+        GeneratedGraph.Builder builder = new GeneratedGraph.Builder(nodeCount, Math.max(nodeCount - 1, 0));
+
+        // The nodes that can still have children, full nodes are swapped with the last open node and removed
+        int[] openNodes = new int[nodeCount];
+        int[] childCounts = new int[nodeCount];
+        int openCount = 0;
+        if (nodeCount > 0) openNodes[openCount++] = 0;
+
+        for (int node = 1; node < nodeCount; node++) {
+            int openIndex = random.nextInt(openCount);
+            int parent = openNodes[openIndex];
+            builder.addEdge(parent, node);
+
+            if (++childCounts[parent] == maxChildren) openNodes[openIndex] = openNodes[--openCount];
+            openNodes[openCount++] = node;
+        }
+
+        return builder.build();
+    }
+}
@@ -1,13 +1,17 @@
 package visualiser.graphics;
 
 import visualiser.data.GraphData;
+import visualiser.data.GraphTopology;
 import visualiser.data.elements.Edge;
 import visualiser.data.elements.Node;
 import visualiser.data.elements.WeightedEdge;
 import visualiser.data.elements.WeightedNode;
 import visualiser.data.DataLoader;
 import visualiser.graphics.canvas.Canvas;
+import visualiser.graphics.canvas.GraphCanvas;
+import visualiser.graphics.canvas.ImmediateCanvas;
 import visualiser.graphics.canvas.Point;
+import visualiser.graphics.canvas.Viewport;
 import visualiser.graphics.logic.GraphBuilder;
 import visualiser.graphics.objects.*;
 import visualiser.graphics.objects.exceptions.DuplicateEdgeException;
@@ -15,15 +19,74 @@ import visualiser.graphics.objects.exceptions.DuplicateNodeException;
 import visualiser.graphics.objects.exceptions.InvalidEdgeException;
 import visualiser.graphics.objects.exceptions.UndefinedNodeException;
 import javafx.scene.Parent;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
 
 public class Graph extends Parent {
+    /**Graphs with at least this many nodes are painted with an {@link ImmediateCanvas} when the render mode is
+     * {@link RenderMode#AUTOMATIC}.*/
+    public static final int IMMEDIATE_RENDER_THRESHOLD = 5000;
+    /**The amount the viewport zooms in or out by for each step of the scroll wheel.*/
+    public static final double ZOOM_FACTOR = 1.1d;
+
+    /**
+     * How the nodes and edges of the graph are displayed.
+     */
+    public enum RenderMode {
+        /**Every element is added to the scene graph using a {@link Canvas}.*/
+        SCENE_GRAPH,
+        /**Every element is painted onto a single {@link ImmediateCanvas}.*/
+        IMMEDIATE,
+        /**{@link #IMMEDIATE} if the graph has at least {@link #IMMEDIATE_RENDER_THRESHOLD} nodes, otherwise
+         * {@link #SCENE_GRAPH}.*/
+        AUTOMATIC
+    }
+
     private final double width, height;
-    private final Canvas canvas;
+    private GraphCanvas canvas;
+    private RenderMode renderMode = RenderMode.AUTOMATIC;
+    private final Viewport viewport;
+    private final Rectangle viewportClip;
+    /**Fills the viewport behind the canvas so that the empty parts of the graph can be scrolled and dragged.*/
+    private final Rectangle viewportBackground;
+    private double dragX, dragY;
     private final GraphBuilder builder;
     private final ArrayList<DrawableNode> nodes = new ArrayList<>();
     private final ArrayList<DrawableEdge> edges = new ArrayList<>();
+    /**The {@link DrawableNode#index() index} of each node, keyed by the node's ID.*/
+    private final HashMap<Integer, Integer> nodeIndices = new HashMap<>();
+    /**Directed edges keyed by the {@link LongKeyMap#pairKey(int, int) pair} of the
+     * {@link DrawableNode#index() indices} of their start and end nodes.*/
+    private final LongKeyMap<DrawableEdge> directedEdges = new LongKeyMap<>();
+    /**Undirected edges keyed by the pair of the indices of their nodes, lowest index first. Equal edges always have
+     * the same key, so there is at most one edge for each key in each map.*/
+    private final LongKeyMap<DrawableEdge> undirectedEdges = new LongKeyMap<>();
+    /**Every edge involving each node, indexed by the node's {@link DrawableNode#index() index}.*/
+    private final ArrayList<ArrayList<DrawableEdge>> incidentEdges = new ArrayList<>();
+    /**The topology of the nodes and edges as they were when it was last requested, null once they have changed.*/
+    private GraphTopology topology = null;
+    /**Edges whose nodes have moved or changed size since the edges were last reconnected, see
+     * {@link #reconnectDirtyEdges()}.*/
+    private final Set<DrawableEdge> dirtyEdges = Collections.newSetFromMap(new IdentityHashMap<>());
+    /**Reconnects the dirty edges before each pulse of the scene the graph is shown in.*/
+    private final Runnable pulseListener = () -> {
+        // The immediate canvas paints edges from their nodes and a frozen canvas hides them, so their shapes are only
+        // needed on an unfrozen scene canvas
+        if (!isImmediateRendering() && !canvas.isFrozen()) reconnectDirtyEdges();
+    };
+    /**Nodes affected by adding or removing nodes and edges since the changes were last taken, see
+     * {@link #takeChanges()}.*/
+    private final Set<DrawableNode> addedNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<DrawableNode> changedNodes = Collections.newSetFromMap(new IdentityHashMap<>());
 
     /**Maximum radius among nodes that have been stored on this canvas. Includes nodes that have not been drawn.*/
     private double maxNodeRadius = 0;
@@ -33,30 +96,147 @@ public class Graph extends Parent {
     }
 
     public Graph(GraphBuilder builder, double width, double height, GraphData graphData) throws InvalidEdgeException, DuplicateNodeException, DuplicateEdgeException {
-        this(builder, width, height, graphData.getNodes(), graphData.getEdges());
+        this(builder, width, height, graphData.getNodeView(), graphData.getEdgeView());
     }
 
-    public Graph(GraphBuilder builder, double width, double height, ArrayList<Node> nodes, ArrayList<Edge> edges) throws InvalidEdgeException, DuplicateNodeException, DuplicateEdgeException {
+    public Graph(GraphBuilder builder, double width, double height, List<? extends Node> nodes, List<? extends Edge> edges) throws InvalidEdgeException, DuplicateNodeException, DuplicateEdgeException {
         this.width = width;
         this.height = height;
         this.builder = builder;
 
-        this.canvas = new Canvas();
-        getChildren().add(canvas);
+        // Show the whole graph at its full size until the viewport is resized, zoomed or panned
+        this.viewport = new Viewport(width, height, width, height);
+        this.viewportClip = new Rectangle(width, height);
+        setClip(viewportClip);
+        this.viewportBackground = new Rectangle(width, height, Color.TRANSPARENT);
+
+        Canvas sceneCanvas = new Canvas(viewport);
+        this.canvas = sceneCanvas;
+        getChildren().addAll(viewportBackground, sceneCanvas);
+        viewport.setChangeAction(this::viewportChanged);
+
+        sceneProperty().addListener((observable, oldScene, newScene) -> {
+            if (oldScene != null) oldScene.removePreLayoutPulseListener(pulseListener);
+            if (newScene != null) newScene.addPreLayoutPulseListener(pulseListener);
+        });
+
+        // Zoom around the pointer with the scroll wheel and pan by dragging
+        addEventHandler(ScrollEvent.SCROLL, event -> {
+            if (event.getDeltaY() == 0) return;
+            viewport.zoomAt(event.getDeltaY() > 0 ? ZOOM_FACTOR : 1 / ZOOM_FACTOR, event.getX(), event.getY());
+        });
+        addEventHandler(MouseEvent.MOUSE_PRESSED, event -> {
+            dragX = event.getSceneX();
+            dragY = event.getSceneY();
+        });
+        addEventHandler(MouseEvent.MOUSE_DRAGGED, event -> {
+            viewport.panBy(event.getSceneX() - dragX, event.getSceneY() - dragY);
+            dragX = event.getSceneX();
+            dragY = event.getSceneY();
+        });
 
         loadDrawableNodes(nodes);
         loadDrawableEdges(edges);
+        updateCanvas();
+    }
+
+    /**
+     * Get the viewport of the graph, which can be resized, zoomed and panned. The viewport starts the same size as
+     * the graph and shows the whole graph.
+     * @return the {@link Viewport} shown by the graph
+     */
+    public Viewport getViewport() {
+        return viewport;
+    }
+
+    /**
+     * Clip the graph to the size of the viewport and show the new region of the graph.
+     */
+    private void viewportChanged() {
+        viewportClip.setWidth(viewport.getWidth());
+        viewportClip.setHeight(viewport.getHeight());
+        viewportBackground.setWidth(viewport.getWidth());
+        viewportBackground.setHeight(viewport.getHeight());
+        canvas.viewportChanged();
+    }
+
+    /**
+     * Set how the nodes and edges of the graph are displayed. Every element that is drawn is moved onto the new
+     * canvas, and the new canvas is frozen if the old one was.
+     * @param renderMode the {@link RenderMode} to use
+     */
+    public void setRenderMode(RenderMode renderMode) {
+        if (renderMode == null) throw new IllegalArgumentException("Render mode cannot be null");
+        this.renderMode = renderMode;
+        updateCanvas();
+    }
+
+    public RenderMode getRenderMode() {
+        return renderMode;
+    }
+
+    /**
+     * @return true if the graph is currently painted with an {@link ImmediateCanvas}
+     */
+    public boolean isImmediateRendering() {
+        return canvas instanceof ImmediateCanvas;
+    }
+
+    /**
+     * Switch to the canvas required by the render mode and the number of nodes, if it is not already in use.
+     */
+    private void updateCanvas() {
+        boolean immediate = renderMode == RenderMode.IMMEDIATE
+                || (renderMode == RenderMode.AUTOMATIC && nodes.size() >= IMMEDIATE_RENDER_THRESHOLD);
+        if (immediate == isImmediateRendering()) return;
+
+        // Find the elements drawn on the old canvas before clearing it
+        ArrayList<DrawableNode> drawnNodes = new ArrayList<>();
+        for (DrawableNode node : nodes) if (canvas.exists(node)) drawnNodes.add(node);
+        ArrayList<DrawableEdge> drawnEdges = new ArrayList<>();
+        for (DrawableEdge edge : edges) if (canvas.exists(edge)) drawnEdges.add(edge);
+        boolean frozen = canvas.isFrozen();
+        canvas.unfreeze();
+        canvas.clear();
+        canvas.stop();
+
+        if (immediate) {
+            ImmediateCanvas immediateCanvas = new ImmediateCanvas(viewport);
+            canvas = immediateCanvas;
+            getChildren().setAll(viewportBackground, immediateCanvas);
+        } else {
+            Canvas sceneCanvas = new Canvas(viewport);
+            canvas = sceneCanvas;
+            getChildren().setAll(viewportBackground, sceneCanvas);
+        }
+        canvas.draw(drawnNodes, drawnEdges);
+        if (frozen) freezeCanvas();
+        System.out.println("Displaying graph with " + (immediate ? "an immediate" : "a scene graph") + " canvas.");
+    }
+
+    /**
+     * Called when the colour or visibility of a node or edge changes, so that an {@link ImmediateCanvas} paints it
+     * again on the next frame.
+     */
+    public void requestRedraw() {
+        canvas.requestRedraw();
     }
 
     public void toggleCanvasFreeze() {
-        canvas.toggleFrozen();
+        setCanvasFrozen(!canvas.isFrozen());
     }
 
     public void setCanvasFrozen(boolean frozen) {
-        canvas.setFrozen(frozen);
+        if (frozen) freezeCanvas();
+        else unfreezeCanvas();
     }
 
+    /**
+     * Freeze the canvas, see {@link GraphCanvas#freeze()}. Edges on a scene graph canvas are reconnected first so
+     * that they are shown in their current positions while the canvas is frozen.
+     */
     public void freezeCanvas() {
+        if (!isImmediateRendering()) reconnectDirtyEdges();
         canvas.freeze();
     }
 
@@ -64,32 +244,262 @@ public class Graph extends Parent {
         canvas.unfreeze();
     }
 
-    private void loadDrawableNodes(ArrayList<Node> nodes) throws DuplicateNodeException {
+    private void loadDrawableNodes(List<? extends Node> nodes) throws DuplicateNodeException {
         // Populate drawable nodes
-        for (Node node : nodes) {
-            DrawableNode drawableNode;
+        for (Node node : nodes) storeNode(node);
+    }
+
+    private void loadDrawableEdges(List<? extends Edge> edges) throws InvalidEdgeException, UndefinedNodeException, DuplicateEdgeException {
+        // Populate drawable edges
+        for (Edge edge : edges) storeEdge(edge);
+    }
+
+    /**
+     * Create a drawable node for a node and store it at the end of the node list.
+     * @param node the node to be stored
+     * @return the created drawable node
+     * @throws DuplicateNodeException if a node with the same ID is already stored
+     */
+    private DrawableNode storeNode(Node node) throws DuplicateNodeException {
+        if (nodeIndices.containsKey(node.id())) throw new DuplicateNodeException(node);
+        DrawableNode drawableNode;
+
+        if (node instanceof WeightedNode weightedNode) drawableNode = new WeightedDrawableNode(this, weightedNode);
+        else drawableNode = new DrawableNode(this, node);
+
+        drawableNode.setIndex(this.nodes.size());
+        nodeIndices.put(node.id(), drawableNode.index());
+        this.nodes.add(drawableNode);
+        incidentEdges.add(new ArrayList<>());
+        topology = null;
+        return drawableNode;
+    }
+
+    /**
+     * Create a drawable edge for an edge and store it at the end of the edge list.
+     * @param edge the edge to be stored
+     * @return the created drawable edge
+     * @throws UndefinedNodeException if either node of the edge is not stored
+     * @throws DuplicateEdgeException if an equal edge is already stored
+     */
+    private DrawableEdge storeEdge(Edge edge) throws InvalidEdgeException, UndefinedNodeException, DuplicateEdgeException {
+        DrawableNode startNode = getNode(edge.startNode());
+        DrawableNode endNode = getNode(edge.endNode());
+        DrawableEdge drawableEdge;
 
-            if (node instanceof WeightedNode weightedNode) drawableNode = new WeightedDrawableNode(this, weightedNode);
-            else drawableNode = new DrawableNode(this, node);
+        if (edge instanceof WeightedEdge weightedEdge) drawableEdge = new WeightedDrawableEdge(startNode, endNode, edge.directed(), weightedEdge.value());
+        else drawableEdge = new DrawableEdge(startNode, endNode, edge.directed());
 
-            if (this.nodes.contains(drawableNode)) throw new DuplicateNodeException(node);
-            this.nodes.add(drawableNode);
+        if (findStoredEdge(drawableEdge) != null) {
+            drawableEdge.disconnectOpposite();
+            throw new DuplicateEdgeException(edge);
         }
+        drawableEdge.setIndex(this.edges.size());
+        this.edges.add(drawableEdge);
+        addToAdjacency(drawableEdge);
+        topology = null;
+        return drawableEdge;
     }
 
-    private void loadDrawableEdges(ArrayList<Edge> edges) throws InvalidEdgeException, UndefinedNodeException, DuplicateEdgeException {
-        // Populate drawable edges
-        for (Edge edge : edges) {
-            DrawableNode startNode = getNode(edge.startNode());
-            DrawableNode endNode = getNode(edge.endNode());
-            DrawableEdge drawableEdge;
+    /**
+     * Store an edge in the edge map for its type and the incidence lists of its nodes. No equal edge can already be
+     * stored.
+     * @param edge the edge to be stored
+     */
+    private void addToAdjacency(DrawableEdge edge) {
+        incidentEdges.get(edge.startNode().index()).add(edge);
+        incidentEdges.get(edge.endNode().index()).add(edge);
+        edgeMapOf(edge).put(edgeKey(edge), edge);
+    }
 
-            if (edge instanceof WeightedEdge weightedEdge) drawableEdge = new WeightedDrawableEdge(startNode, endNode, edge.directed(), weightedEdge.value());
-            else drawableEdge = new DrawableEdge(startNode, endNode, edge.directed());
+    /**
+     * Remove an edge from the edge map for its type and the incidence lists of its nodes.
+     * @param edge the edge to be removed
+     */
+    private void removeFromAdjacency(DrawableEdge edge) {
+        removeByIdentity(incidentEdges.get(edge.startNode().index()), edge);
+        removeByIdentity(incidentEdges.get(edge.endNode().index()), edge);
+        edgeMapOf(edge).remove(edgeKey(edge));
+    }
+
+    /**
+     * Find the stored edge equal to an edge. Equal edges have the same key in the same edge map.
+     * @param edge the edge to search for
+     * @return the stored edge, or null if no equal edge is stored
+     */
+    private DrawableEdge findStoredEdge(DrawableEdge edge) {
+        if (!isIndexed(edge.startNode()) || !isIndexed(edge.endNode())) return null;
+        return edgeMapOf(edge).get(edgeKey(edge));
+    }
 
-            if (this.edges.contains(drawableEdge)) throw new DuplicateEdgeException(edge);
-            this.edges.add(drawableEdge);
+    private LongKeyMap<DrawableEdge> edgeMapOf(DrawableEdge edge) {
+        return edge.directed() ? directedEdges : undirectedEdges;
+    }
+
+    /**
+     * @return the key of an edge in the edge map for its type, made from the current indices of its nodes
+     */
+    private static long edgeKey(DrawableEdge edge) {
+        int start = edge.startNode().index();
+        int end = edge.endNode().index();
+        if (edge.directed()) return LongKeyMap.pairKey(start, end);
+        return LongKeyMap.pairKey(Math.min(start, end), Math.max(start, end));
+    }
+
+    private static void removeByIdentity(ArrayList<DrawableEdge> edges, DrawableEdge edge) {
+        for (int i = edges.size() - 1; i >= 0; i--) {
+            if (edges.get(i) == edge) {
+                edges.remove(i);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Add a node to the graph at a random position and draw it. Can be called while a build is running, see
+     * {@link #addNode(Node, Point)}.
+     * @param node the node to add
+     * @return the drawable node that was added
+     * @throws DuplicateNodeException if the graph already has a node with the same ID
+     * @see #addNode(Node, Point)
+     */
+    public DrawableNode addNode(Node node) throws DuplicateNodeException {
+        return addNode(node, generatePoint());
+    }
+
+    /**
+     * Add a node to the graph and draw it. The node is moved within the bounds of the graph if it does not fit at the
+     * given position.
+     * <br/>Can be called while a {@link GraphBuilder build} is running. A running build only moves the nodes that were
+     * on the graph when it started, so the new node stays where it was placed until the next build.
+     * @param node the node to add
+     * @param centre the position of the centre of the node
+     * @return the drawable node that was added
+     * @throws DuplicateNodeException if the graph already has a node with the same ID
+     */
+    public DrawableNode addNode(Node node, Point centre) throws DuplicateNodeException {
+        DrawableNode drawableNode = storeNode(node);
+        updateCanvas();
+        drawableNode.draw();
+        drawableNode.moveWithinBoundsTo(centre);
+        addedNodes.add(drawableNode);
+        changedNodes.add(drawableNode);
+        return drawableNode;
+    }
+
+    /**
+     * Remove a node and every edge involving it from the graph and the canvas. The last node in the graph takes the
+     * {@link DrawableNode#index() index} of the removed node, the indices of all other nodes are unchanged.
+     * <br/>Can be called while a {@link GraphBuilder build} is running. A running build skips the removed node and
+     * still moves every other node to its own position, even though the last node has changed index.
+     * @param node the node to remove
+     * @return true if the node was removed, false if it is not on this graph
+     */
+    public boolean removeNode(DrawableNode node) {
+        if (!isIndexed(node)) return false;
+        int index = node.index();
+        DrawableNode removedNode = nodes.get(index);
+
+        // Removed from the last edge so that each edge is found at the end of the node's incidence list
+        ArrayList<DrawableEdge> removedEdges = incidentEdges.get(index);
+        while (!removedEdges.isEmpty()) removeEdge(removedEdges.get(removedEdges.size() - 1));
+
+        // Move the last node into the removed node's place so that only one node changes index
+        int lastIndex = nodes.size() - 1;
+        if (index != lastIndex) {
+            DrawableNode lastNode = nodes.get(lastIndex);
+            ArrayList<DrawableEdge> movedEdges = incidentEdges.get(lastIndex);
+
+            // The edges of the moved node are keyed by its index, so they are keyed again once it has moved
+            for (DrawableEdge edge : movedEdges) edgeMapOf(edge).remove(edgeKey(edge));
+            nodes.set(index, lastNode);
+            lastNode.setIndex(index);
+            nodeIndices.put(lastNode.id(), index);
+            incidentEdges.set(index, movedEdges);
+            for (DrawableEdge edge : movedEdges) edgeMapOf(edge).put(edgeKey(edge), edge);
         }
+        nodes.remove(lastIndex);
+        nodeIndices.remove(removedNode.id());
+        incidentEdges.remove(lastIndex);
+        topology = null;
+
+        removedNode.setIndex(-1);
+        addedNodes.remove(removedNode);
+        changedNodes.remove(removedNode);
+        canvas.remove(removedNode);
+        return true;
+    }
+
+    /**
+     * Add an edge to the graph and draw it. Both nodes of the edge must already be on the graph.
+     * <br/>Can be called while a {@link GraphBuilder build} is running. A running build lays out the edges that were
+     * on the graph when it started, the new edge only affects the next build.
+     * @param edge the edge to add
+     * @return the drawable edge that was added
+     * @throws InvalidEdgeException if the edge connects a node to itself
+     * @throws UndefinedNodeException if either node of the edge is not on the graph
+     * @throws DuplicateEdgeException if the graph already has an equal edge
+     */
+    public DrawableEdge addEdge(Edge edge) throws InvalidEdgeException, UndefinedNodeException, DuplicateEdgeException {
+        DrawableEdge drawableEdge = storeEdge(edge);
+        drawableEdge.draw();
+        changedNodes.add(drawableEdge.startNode());
+        changedNodes.add(drawableEdge.endNode());
+        return drawableEdge;
+    }
+
+    /**
+     * Remove an edge from the graph and the canvas. The last edge in the graph takes the
+     * {@link DrawableEdge#index() index} of the removed edge, the indices of all other edges are unchanged.
+     * <br/>Can be called while a {@link GraphBuilder build} is running. A running build lays out the edges that were
+     * on the graph when it started, the removed edge only stops affecting the layout from the next build.
+     * @param edge the edge to remove, or any edge equal to it
+     * @return true if the edge was removed, false if it is not on this graph
+     */
+    public boolean removeEdge(DrawableEdge edge) {
+        DrawableEdge removedEdge = findStoredEdge(edge);
+        if (removedEdge == null) return false;
+        int position = removedEdge.index();
+
+        removeFromAdjacency(removedEdge);
+        // Move the last edge into the removed edge's place so that the edge list does not have to be shifted
+        int lastPosition = edges.size() - 1;
+        if (position != lastPosition) {
+            DrawableEdge lastEdge = edges.get(lastPosition);
+            edges.set(position, lastEdge);
+            lastEdge.setIndex(position);
+        }
+        edges.remove(lastPosition);
+        removedEdge.setIndex(-1);
+        topology = null;
+        dirtyEdges.remove(removedEdge);
+        removedEdge.disconnectOpposite();
+        canvas.remove(removedEdge);
+        changedNodes.add(removedEdge.startNode());
+        changedNodes.add(removedEdge.endNode());
+        return true;
+    }
+
+    /**
+     * Get the nodes affected by adding and removing nodes and edges since this method was last called, and start
+     * recording changes again from now. Used to lay out only the parts of the graph that have changed.
+     * @return the changes made to the graph
+     */
+    public GraphChanges takeChanges() {
+        GraphChanges changes = new GraphChanges(new ArrayList<>(addedNodes), new ArrayList<>(changedNodes));
+        addedNodes.clear();
+        changedNodes.clear();
+        return changes;
+    }
+
+    /**
+     * Check that a node belongs to this graph and that its index refers to it.
+     * @param node the node to check
+     * @return true if the node's index can be used to look it up in the adjacency maps
+     */
+    private boolean isIndexed(DrawableNode node) {
+        int index = node.index();
+        return index >= 0 && index < nodes.size() && nodes.get(index).equals(node);
     }
 
     public double width() {
@@ -130,22 +540,90 @@ public class Graph extends Parent {
         return edge.intersectsAnyOf(nodes);
     }
 
+    /**
+     * Check if two nodes are connected by an edge in either direction.
+     * @param node1 the first node (in any order)
+     * @param node2 the second node (in any order)
+     * @return true if an edge exists between the nodes, false otherwise
+     */
     public boolean areConnected(DrawableNode node1, DrawableNode node2) {
-        for (DrawableEdge edge : edges) {
-            if (edge.involves(node1) && edge.involves(node2)) return true;
+        if (!isIndexed(node1) || !isIndexed(node2)) return false;
+        int index1 = node1.index();
+        int index2 = node2.index();
+        return directedEdges.containsKey(LongKeyMap.pairKey(index1, index2))
+                || directedEdges.containsKey(LongKeyMap.pairKey(index2, index1))
+                || undirectedEdges.containsKey(LongKeyMap.pairKey(Math.min(index1, index2), Math.max(index1, index2)));
+    }
+
+    /**
+     * Get every node connected to a node by an edge in either direction. Each connected node is only listed once.
+     * @param node the node to find the neighbours of
+     * @return the connected nodes
+     */
+    public ArrayList<DrawableNode> getNeighbours(DrawableNode node) {
+        ArrayList<DrawableNode> neighbours = new ArrayList<>();
+        if (!isIndexed(node)) return neighbours;
+
+        // Nodes can be connected by more than one edge, so each neighbour is only added for its first edge
+        Set<DrawableNode> found = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (DrawableEdge edge : incidentEdges.get(node.index())) {
+            DrawableNode neighbour = edge.startNode() == node ? edge.endNode() : edge.startNode();
+            if (found.add(neighbour)) neighbours.add(neighbour);
         }
-        return false;
+        return neighbours;
+    }
+
+    /**
+     * Get the connections between the nodes on the graph in compressed sparse row form, with each node identified by
+     * its {@link DrawableNode#index() index} and each edge by its position in the edge list. The topology does not
+     * change with the graph, it is built again the next time this is called after a node or edge has been added or
+     * removed.
+     * @return the topology of the graph as it is now
+     */
+    public GraphTopology getTopology() {
+        if (topology != null) return topology;
+        int edgeCount = edges.size();
+        int[] starts = new int[edgeCount];
+        int[] ends = new int[edgeCount];
+        boolean[] directed = new boolean[edgeCount];
+        String[] weights = new String[edgeCount];
+        for (int i = 0; i < edgeCount; i++) {
+            DrawableEdge edge = edges.get(i);
+            starts[i] = edge.startNode().index();
+            ends[i] = edge.endNode().index();
+            directed[i] = edge.directed();
+            if (edge instanceof WeightedDrawableEdge weightedEdge) weights[i] = weightedEdge.value();
+        }
+        topology = GraphTopology.fromEdges(nodes.size(), starts, ends, directed, weights);
+        return topology;
     }
 
     public boolean isEdge(DrawableNode node1, DrawableNode node2, boolean directed) {
         return getEdge(node1, node2, directed) != null/* || (!directed && getEdge(node2, node1) != null)*/;
     }
 
+    /**
+     * Get the edge from one node to another. A pair of nodes can be joined by both directed and undirected edges, if
+     * more than one edge is accepted they are returned in this order, whatever order they were added in:
+     * <br/>directed edge from {@code node1} to {@code node2} -> directed edge from {@code node2} to {@code node1} (only
+     * if {@code directed} is false) -> undirected edge between the nodes
+     * @param node1 the node at the start of the edge
+     * @param node2 the node at the end of the edge
+     * @param directed if false then an edge from {@code node2} to {@code node1} will also be accepted
+     * @return the edge between the nodes, or null if there is no such edge
+     */
     public DrawableEdge getEdge(DrawableNode node1, DrawableNode node2, boolean directed) {
-        for (DrawableEdge edge : edges)
-            if ((edge.startNode().equals(node1) && edge.endNode().equals(node2))
-                    || (!directed && edge.startNode().equals(node2) && edge.endNode().equals(node1))) return edge;
-        return null;
+        if (!isIndexed(node1) || !isIndexed(node2)) return null;
+        int index1 = node1.index();
+        int index2 = node2.index();
+        DrawableEdge edge = directedEdges.get(LongKeyMap.pairKey(index1, index2));
+        if (edge == null && !directed) edge = directedEdges.get(LongKeyMap.pairKey(index2, index1));
+        if (edge != null) return edge;
+
+        // An undirected edge only goes from node1 to node2 if node1 is its start node, unless either way is accepted
+        edge = undirectedEdges.get(LongKeyMap.pairKey(Math.min(index1, index2), Math.max(index1, index2)));
+        if (edge != null && directed && edge.startNode() != node1) edge = null;
+        return edge;
     }
 
     public void draw(DrawableNode node) {
@@ -177,11 +655,13 @@ public class Graph extends Parent {
         return cx - radius >= 0 && cy - radius >= 0 && cx + radius <= width && cy + radius <= height;
     }
 
+    /**
+     * @param nodeID the ID of the node
+     * @return the node on this graph with the ID, or null if there is none
+     */
     public DrawableNode getNode(int nodeID) {
-        for (DrawableNode searchNode : nodes) {
-            if (searchNode.id() == nodeID) return searchNode;
-        }
-        return null;
+        Integer index = nodeIndices.get(nodeID);
+        return index == null ? null : nodes.get(index);
     }
 
     public DrawableNode getNode(Node node) {
@@ -248,8 +728,26 @@ public class Graph extends Parent {
         for (DrawableNode node : nodes) resizeNode(node, matchLargest, maintainCentre);
     }
 
+    /**
+     * Mark every edge involving a node to be reconnected, called when the node moves or changes size. The edges are
+     * not reconnected straight away, so a node that moves many times in one frame only has its edges reconnected
+     * once, see {@link #reconnectDirtyEdges()}.
+     * @param node the node that has moved or changed size
+     */
     public void reconnectEdgesOf(DrawableNode node) {
-        for (DrawableEdge edge : edges) if (edge.involves(node)) edge.reconnect();
+        if (isIndexed(node)) dirtyEdges.addAll(incidentEdges.get(node.index()));
+        canvas.positionsChanged();
+    }
+
+    /**
+     * Reconnect every edge marked by {@link #reconnectEdgesOf(DrawableNode)} since the edges were last reconnected.
+     * This is called before each pulse of the scene that the graph is shown in, just before layout and rendering, but
+     * can also be called directly when the shapes of the edges are needed straight away.
+     */
+    public void reconnectDirtyEdges() {
+        if (dirtyEdges.isEmpty()) return;
+        for (DrawableEdge edge : dirtyEdges) edge.reconnect();
+        dirtyEdges.clear();
     }
 
     /**
@@ -0,0 +1,45 @@
+package visualiser.graphics;
+
+import visualiser.graphics.objects.DrawableNode;
+
+import java.util.ArrayList;
+
+/**
+ * The nodes of a {@link Graph graph} that have been affected by adding or removing nodes and edges since the changes
+ * were last taken with {@link Graph#takeChanges()}. Nodes that have since been removed from the graph are not listed.
+ */
+public class GraphChanges {
+    private final ArrayList<DrawableNode> addedNodes;
+    private final ArrayList<DrawableNode> changedNodes;
+
+    /**
+     * @param addedNodes the nodes that have been added to the graph
+     * @param changedNodes every node that has been added or has had an edge added or removed, including the added
+     *                     nodes
+     */
+    public GraphChanges(ArrayList<DrawableNode> addedNodes, ArrayList<DrawableNode> changedNodes) {
+        this.addedNodes = addedNodes;
+        this.changedNodes = changedNodes;
+    }
+
+    /**
+     * @return the nodes that have been added to the graph
+     */
+    public ArrayList<DrawableNode> addedNodes() {
+        return addedNodes;
+    }
+
+    /**
+     * @return every node that has been added or has had an edge added or removed, including the added nodes
+     */
+    public ArrayList<DrawableNode> changedNodes() {
+        return changedNodes;
+    }
+
+    /**
+     * @return true if no nodes have been affected
+     */
+    public boolean isEmpty() {
+        return changedNodes.isEmpty();
+    }
+}
@@ -0,0 +1,150 @@
+package visualiser.graphics;
+
+import java.util.Arrays;
+
+/**
+ * A hash map from primitive {@code long} keys to values, used to find edges by the indices of their nodes without
+ * boxing the keys. Entries are stored in flat arrays with open addressing, each key is placed in the first free slot
+ * after the slot it hashes to. Removed entries are filled in by moving later entries back, so lookups never have to
+ * skip over removed slots.
+ * <br/>{@link Long#MIN_VALUE} marks an empty slot and cannot be used as a key.
+ * @param <V> the type of value stored in the map
+ */
+class LongKeyMap<V> {
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private Object[] values;
+    private int size = 0;
+    /**The number of slots minus 1, the number of slots is always a power of 2.*/
+    private int mask;
+
+    LongKeyMap() {
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * Create a key from two non-negative ints, for example the indices of the start and end nodes of an edge. Keys
+     * made this way are never {@link Long#MIN_VALUE}.
+     */
+    static long pairKey(int first, int second) {
+        return ((long) first << 32) | (second & 0xFFFFFFFFL);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean containsKey(long key) {
+        return slotOf(key) != -1;
+    }
+
+    /**
+     * @return the value stored with the key, or null if the key is not in the map
+     */
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        int slot = slotOf(key);
+        return slot == -1 ? null : (V) values[slot];
+    }
+
+    /**
+     * Store a value with a key, replacing any value already stored with the key.
+     * @return the value that was replaced, or null if the key was not in the map
+     */
+    @SuppressWarnings("unchecked")
+    V put(long key, V value) {
+        if (key == EMPTY) throw new IllegalArgumentException("Key cannot be Long.MIN_VALUE");
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) {
+                V previous = (V) values[slot];
+                values[slot] = value;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        // Keep the map at most half full so that runs of occupied slots stay short
+        if (++size * 2 > keys.length) resize(keys.length * 2);
+        return null;
+    }
+
+    /**
+     * Remove a key and its value from the map.
+     * @return the value that was removed, or null if the key was not in the map
+     */
+    @SuppressWarnings("unchecked")
+    V remove(long key) {
+        int slot = slotOf(key);
+        if (slot == -1) return null;
+        V removed = (V) values[slot];
+
+        // Move back any later entry that would no longer be found once this slot is empty
+        int emptySlot = slot;
+        int nextSlot = (slot + 1) & mask;
+        while (keys[nextSlot] != EMPTY) {
+            int idealSlot = hash(keys[nextSlot]) & mask;
+            // The entry can move back if its ideal slot is not between the empty slot and its current slot
+            if (((nextSlot - idealSlot) & mask) >= ((nextSlot - emptySlot) & mask)) {
+                keys[emptySlot] = keys[nextSlot];
+                values[emptySlot] = values[nextSlot];
+                emptySlot = nextSlot;
+            }
+            nextSlot = (nextSlot + 1) & mask;
+        }
+        keys[emptySlot] = EMPTY;
+        values[emptySlot] = null;
+        size--;
+        return removed;
+    }
+
+    void clear() {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    /**
+     * @return the slot holding the key, or -1 if the key is not in the map
+     */
+    private int slotOf(long key) {
+        if (key == EMPTY) return -1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == key) return slot;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY) continue;
+            int slot = hash(oldKeys[i]) & mask;
+            while (keys[slot] != EMPTY) slot = (slot + 1) & mask;
+            keys[slot] = oldKeys[i];
+            values[slot] = oldValues[i];
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * Spread the bits of a key so that keys made from nearby indices do not land in nearby slots.
+     */
+    private static int hash(long key) {
+        long mixed = key * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+}
@@ -1,15 +1,79 @@
 package visualiser.graphics.canvas;
 
+import visualiser.graphics.logic.AnimationScheduler;
 import visualiser.graphics.objects.*;
+import javafx.collections.ObservableList;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.Group;
 import javafx.scene.Node;
 import javafx.scene.Parent;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.image.ImageView;
+import javafx.scene.paint.Color;
+import javafx.scene.transform.Scale;
+import javafx.scene.transform.Translate;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
 
-public class Canvas extends Parent {
+/**
+ * Displays the nodes and edges of a graph by adding them to the scene graph. Elements are kept in separate layers so
+ * that they are always shown in the same order from bottom to top, no matter the order they were drawn in:
+ * <br/>nodes -> edges -> node weights -> edge weights
+ * <br/>The canvas is scaled and moved to show the region of the graph in its {@link Viewport}. While only part of the
+ * graph is in view, only the elements whose bounds overlap the viewport are added to the scene graph. These are found
+ * with an index of the element positions once per frame, after the viewport or an element has moved. As the viewport
+ * zooms out weights and arrows are hidden and then nodes are shown as dots, see {@link Viewport.DetailLevel}.
+ * <br/>While the canvas is frozen it shows a picture of the elements taken when it was frozen, and the elements
+ * themselves are hidden.
+ * @see ImmediateCanvas
+ */
+public class Canvas extends Parent implements GraphCanvas {
     private boolean frozen = false;
     private boolean freezing = false;
-    private final ArrayList<Node> frozenNodes = new ArrayList<>();
+    private final Layer nodeLayer = new Layer();
+    private final Layer edgeLayer = new Layer();
+    private final Layer nodeWeightLayer = new Layer();
+    private final Layer edgeWeightLayer = new Layer();
+    /**Shows the picture of the canvas taken when it was frozen, hidden while the canvas is unfrozen.*/
+    private final ImageView frozenView = new ImageView();
+    /**The nodes and edges stored on the canvas, whether the canvas is frozen or not. Compared by identity.*/
+    private final Set<DrawableNode> storedNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<DrawableEdge> storedEdges = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Viewport viewport;
+    private final Scale scale = new Scale();
+    private final Translate translate = new Translate();
+    private Viewport.DetailLevel detailLevel = Viewport.DetailLevel.FULL;
+    private ElementIndex index = null;
+    private boolean cullRequested = true;
+    private boolean stopped = false;
+    /**Finds the shown elements on the next frame, only scheduled while a cull has been requested.*/
+    private final AnimationScheduler.Animation cullAnimation = (now, deadline) -> {
+        if (cullRequested && !frozen) cull();
+        return true;
+    };
+
+    /**
+     * @param viewport the viewport that the canvas shows
+     */
+    public Canvas(Viewport viewport) {
+        this.viewport = viewport;
+        frozenView.setVisible(false);
+        getChildren().addAll(nodeLayer.group, edgeLayer.group, nodeWeightLayer.group, edgeWeightLayer.group, frozenView);
+        getTransforms().addAll(scale, translate);
+        viewportChanged();
+    }
+
+    @Override
+    public void stop() {
+        stopped = true;
+        AnimationScheduler.getShared().cancel(cullAnimation);
+    }
 
     /**
      * Freeze the canvas if it is currently unfrozen, unfreeze if it is frozen.
@@ -17,6 +81,7 @@ public class Canvas extends Parent {
      * @see #freeze()
      * @see #unfreeze()
      */
+    @Override
     public void toggleFrozen() {
         setFrozen(!frozen);
     }
@@ -27,152 +92,114 @@ public class Canvas extends Parent {
      * @see #freeze()
      * @see #unfreeze()
      */
+    @Override
     public void setFrozen(boolean frozen) {
         if (frozen) freeze();
         else unfreeze();
     }
 
     /**
-     * Freeze the canvas. Store all elements currently on the canvas, create copies of every node, edge and weight.
-     * Remove all elements from the canvas and add the copies. Cannot freeze if already frozen. Once frozen all
-     * draw/remove method calls will apply only to the stored frozen nodes and will be drawn/removed on the canvas
-     * when unfrozen. While frozen both {@link #exists(DrawableNode)} and {@link #exists(DrawableEdge)} will refer
-     * to the stored frozen nodes and not the nodes shown on the canvas.
+     * Freeze the canvas. Take a picture of the region of the canvas in the viewport and show it in place of the
+     * elements, which are hidden. Cannot freeze if already frozen. Once frozen all draw/remove method calls will apply
+     * only to the stored elements and will be shown on the canvas when unfrozen, and elements that move are not
+     * shown moving. The picture is zoomed and panned with the viewport, parts of the graph that were out of view when
+     * the canvas was frozen are left empty.
+     * <br/>Freezing takes the same time as showing the canvas for a single frame, no matter how many elements are
+     * stored.
      * @see #toggleFrozen()
      * @see #setFrozen(boolean)
      * @see #unfreeze()
      */
+    @Override
     public void freeze() {
         if (frozen || freezing) return;
         freezing = true;
-        frozenNodes.clear();
-        // Store the actual objects of the frozen nodes so that they can be re-added to the canvas when unfrozen
-        frozenNodes.addAll(getChildren());
-        // Remove all objects from the canvas
-        getChildren().clear();
-
-        // Store a copy of each DrawableNode on the canvas and draw them
-        ArrayList<DrawableNode> copiedNodes = new ArrayList<>();
-        ArrayList<DrawableEdge> existingEdges = new ArrayList<>();
-        for (Node frozenNode : frozenNodes) {
-            if (frozenNode instanceof DrawableNode node) {
-                DrawableNode copiedNode = node.createCopy();
-                copiedNodes.add(copiedNode);
-                draw(copiedNode, true);
-            }
-            else if (frozenNode instanceof DrawableEdge edge) existingEdges.add(edge);
-        }
+        if (cullRequested) cull();
+
+        // The picture is taken in the coordinates of the graph, which are the coordinates of the viewport
+        SnapshotParameters parameters = new SnapshotParameters();
+        parameters.setFill(Color.TRANSPARENT);
+        parameters.setViewport(new Rectangle2D(0, 0, viewport.getWidth(), viewport.getHeight()));
+        frozenView.setImage(snapshot(parameters, null));
+
+        // Place the picture back over the region it was taken of, the canvas is scaled and moved to the viewport
+        frozenView.setX(viewport.getX());
+        frozenView.setY(viewport.getY());
+        frozenView.setFitWidth(viewport.getWidth() / viewport.getScale());
+        frozenView.setFitHeight(viewport.getHeight() / viewport.getScale());
+
+        nodeLayer.group.setVisible(false);
+        edgeLayer.group.setVisible(false);
+        nodeWeightLayer.group.setVisible(false);
+        edgeWeightLayer.group.setVisible(false);
+        frozenView.setVisible(true);
 
-        // For every existing edge, find its copied nodes and create a copy of the edge connecting the copied nodes
-        for (DrawableEdge existingEdge : existingEdges) {
-            // Draw the copied edge
-            draw(existingEdge.createCopyWith(copiedNodes), true);
-        }
         frozen = true;
         freezing = false;
     }
 
     /**
-     * Unfreeze the canvas, all copied elements are removed and replaced by the stored elements.
+     * Unfreeze the canvas, the picture is removed and the stored elements are shown again as they are now.
      * @see #toggleFrozen()
      * @see #setFrozen(boolean)
      * @see #freeze()
      */
+    @Override
     public void unfreeze() {
         if (!frozen || freezing) return;
 
-        // Set up canvas before setting frozen to false
-        getChildren().clear();
-        getChildren().addAll(frozenNodes);
-        frozenNodes.clear();
-        resetZIndex();
+        frozenView.setVisible(false);
+        frozenView.setImage(null);
+        boolean full = detailLevel == Viewport.DetailLevel.FULL;
+        nodeLayer.group.setVisible(true);
+        edgeLayer.group.setVisible(true);
+        nodeWeightLayer.group.setVisible(full);
+        edgeWeightLayer.group.setVisible(full);
 
+        // The layers are brought up to date with the stored elements when the shown elements are next found
         frozen = false;
+        positionsChanged();
     }
 
-    /**
-     * Remove all elements from the canvas.
-     */
-    public void clear() {
-        if (frozen) frozenNodes.clear();
-        else getChildren().clear();
+    @Override
+    public boolean isFrozen() {
+        return frozen;
     }
 
     /**
-     * If frozen get the frozen elements, if unfrozen get a copy of the result of {@link #getChildren()}. Should not be
-     * used to modify the canvas elements.
-     * @return stored frozen elements if frozen, otherwise a copy of the result of {@link #getChildren()}
+     * Remove all elements from the canvas.
      */
-    private ArrayList<Node> getCanvasElements() {
-        if (frozen) return frozenNodes;
-        return new ArrayList<>(getChildren());
+    @Override
+    public void clear() {
+        storedNodes.clear();
+        storedEdges.clear();
+        nodeLayer.clear();
+        edgeLayer.clear();
+        nodeWeightLayer.clear();
+        edgeWeightLayer.clear();
+        positionsChanged();
     }
 
     /**
      * If a node exists in the canvas. Checks frozen elements instead of the canvas if the canvas is frozen.
-     * @param node the node to search for
+     * @param node the node to search for, copies of a node are not the same node
      * @return true if the node is in the canvas or, if the canvas is frozen, true if the node is in the
      * frozen elements
      */
+    @Override
     public boolean exists(DrawableNode node) {
-        for (Node element : getCanvasElements())
-            if (element instanceof DrawableNode existingNode)
-                if (existingNode.equals(node)) return true;
-        return false;
+        return storedNodes.contains(node);
     }
 
     /**
      * If an edge exists in the canvas. Checks frozen elements instead of the canvas if the canvas is frozen.
-     * @param edge the edge to search for
+     * @param edge the edge to search for, copies of an edge are not the same edge
      * @return true if the edge is in the canvas or, if the canvas is frozen, true if the edge is in the
      * frozen elements
      */
+    @Override
     public boolean exists(DrawableEdge edge) {
-        for (Node element : getCanvasElements())
-            if (element instanceof DrawableEdge existingEdge)
-                if (existingEdge.equals(edge)) return true;
-        return false;
-    }
-
-    /**
-     * Reset the order of all elements on the canvas, whether the canvas is frozen or not. The order of elements
-     * from bottom to top is as follows:
-     * <br/>nodes -> edges -> node weights -> edge weights
-     */
-    private void resetZIndex() {
-        ArrayList<DrawableNode> nodes = new ArrayList<>();
-        ArrayList<DrawableEdge> edges = new ArrayList<>();
-        ArrayList<WeightedDrawableNode.Weight> nodeWeights = new ArrayList<>();
-        ArrayList<WeightedDrawableEdge.Weight> edgeWeights = new ArrayList<>();
-
-        for (Node child : getChildren()) {
-            if (child instanceof DrawableNode node) {
-                nodes.add(node);
-            }
-            if (child instanceof DrawableEdge edge) {
-                edges.add(edge);
-            }
-            if (child instanceof WeightedDrawableNode.Weight weight) {
-                nodeWeights.add(weight);
-            }
-            if (child instanceof WeightedDrawableEdge.Weight weight) {
-                edgeWeights.add(weight);
-            }
-        }
-
-        getChildren().clear();
-        for (DrawableNode node : nodes) {
-            getChildren().add(node);
-        }
-        for (DrawableEdge edge : edges) {
-            getChildren().add(edge);
-        }
-        for (WeightedDrawableNode.Weight weight : nodeWeights) {
-            getChildren().add(weight);
-        }
-        for (WeightedDrawableEdge.Weight weight : edgeWeights) {
-            getChildren().add(weight);
-        }
+        return storedEdges.contains(edge);
     }
 
     /**
@@ -181,48 +208,40 @@ public class Canvas extends Parent {
      * @param node the node to draw to the canvas
      * @return true if the node was successfully drawn to the canvas, false if the node already existed on the canvas
      * @throws ConcurrentFreezeActionException if called while {@link #freeze()} is still executing
-     * @see #drawNodes(ArrayList)
-     * @see #draw(ArrayList, ArrayList)
+     * @see #drawNodes(Collection)
+     * @see #draw(Collection, Collection)
      */
+    @Override
     public boolean draw(DrawableNode node) {
-        return draw(node, false);
-    }
-
-    /**
-     * Draw a node to the canvas. If the canvas is frozen, instead the node will be stored and drawn when the canvas is
-     * unfrozen. If the node already exists then nothing will happen.
-     * @param node the node to draw to the canvas
-     * @param force set to true to override the check for if {@link #freeze()} is still executing
-     * @return true if the node was successfully drawn to the canvas, false if the node already existed on the canvas
-     * @throws ConcurrentFreezeActionException if called while {@link #freeze()} is still executing
-     * @see #draw(DrawableNode)
-     */
-    private boolean draw(DrawableNode node, boolean force) {
-        if (freezing && !force)
-            throw new ConcurrentFreezeActionException("draw node \"" + node.toString() + "\" to canvas");
-        boolean nodeExists = exists(node);
-        if (!nodeExists) {
-            if (frozen) frozenNodes.add(node);
-            else getChildren().add(node);
-            if (node instanceof WeightedDrawableNode weightedNode) {
-                if (frozen) frozenNodes.add(weightedNode.getWeight());
-                else getChildren().add(weightedNode.getWeight());
-            }
-        }
-        if (!frozen) resetZIndex();
-        return !nodeExists;
+        return drawNodes(List.of(node)) == 1;
     }
 
     /**
      * Draw multiple nodes to the canvas. If the canvas is frozen, instead the nodes will be stored and drawn when the
-     * canvas is unfrozen. Only nodes that do not already exist on the canvas will be added.
+     * canvas is unfrozen. Only nodes that do not already exist on the canvas will be added. The nodes and their
+     * weights are added to their layers all at once.
      * @param nodes the nodes to draw to the canvas
+     * @return the number of nodes that were drawn
      * @throws ConcurrentFreezeActionException if called while {@link #freeze()} is still executing
      * @see #draw(DrawableNode)
-     * @see #draw(ArrayList, ArrayList)
+     * @see #draw(Collection, Collection)
      */
-    public void drawNodes(ArrayList<DrawableNode> nodes) {
-        for (DrawableNode node : nodes) draw(node);
+    @Override
+    public int drawNodes(Collection<? extends DrawableNode> nodes) {
+        if (freezing) throw new ConcurrentFreezeActionException("draw nodes to canvas");
+        ArrayList<Node> newNodes = new ArrayList<>();
+        ArrayList<Node> newWeights = new ArrayList<>();
+        boolean dots = detailLevel == Viewport.DetailLevel.DOTS;
+        for (DrawableNode node : nodes) {
+            if (!storedNodes.add(node)) continue;
+            if (node.isShownAsDot() != dots) node.setShownAsDot(dots);
+            newNodes.add(node);
+            if (node instanceof WeightedDrawableNode weightedNode) newWeights.add(weightedNode.getWeight());
+        }
+        nodeLayer.addAll(newNodes);
+        nodeWeightLayer.addAll(newWeights);
+        if (!newNodes.isEmpty()) positionsChanged();
+        return newNodes.size();
     }
 
     /**
@@ -231,48 +250,40 @@ public class Canvas extends Parent {
      * @param edge the edge to draw to the canvas
      * @return true if the edge was successfully drawn to the canvas, false if the edge already existed on the canvas
      * @throws ConcurrentFreezeActionException if called while {@link #freeze()} is still executing
-     * @see #drawEdges(ArrayList)
-     * @see #draw(ArrayList, ArrayList)
+     * @see #drawEdges(Collection)
+     * @see #draw(Collection, Collection)
      */
+    @Override
     public boolean draw(DrawableEdge edge) {
-        return draw(edge, false);
-    }
-
-    /**
-     * Draw an edge to the canvas. If the canvas is frozen, instead the edge will be stored and drawn when the canvas
-     * is unfrozen. If the edge already exists then nothing will happen.
-     * @param edge the edge to draw to the canvas
-     * @param force set to true to override the check for if {@link #freeze()} is still executing
-     * @return true if the edge was successfully drawn to the canvas, false if the edge already existed on the canvas
-     * @throws ConcurrentFreezeActionException if called while {@link #freeze()} is still executing
-     * @see #draw(DrawableEdge)
-     */
-    private boolean draw(DrawableEdge edge, boolean force) {
-        if (freezing && !force)
-            throw new ConcurrentFreezeActionException("draw edge \"" + edge.toString() + "\" to canvas");
-        boolean edgeExists = exists(edge);
-        if (!edgeExists) {
-            if (frozen) frozenNodes.add(edge);
-            else getChildren().add(edge);
-            if (edge instanceof WeightedDrawableEdge weightedEdge) {
-                if (frozen) frozenNodes.add(weightedEdge.getWeight());
-                else getChildren().add(weightedEdge.getWeight());
-            }
-        }
-        if (!frozen) resetZIndex();
-        return !edgeExists;
+        return drawEdges(List.of(edge)) == 1;
     }
 
     /**
      * Draw multiple edges to the canvas. If the canvas is frozen, instead the edges will be stored and drawn when the
-     * canvas is unfrozen. Only edges that do not already exist on the canvas will be added.
+     * canvas is unfrozen. Only edges that do not already exist on the canvas will be added. The edges and their
+     * weights are added to their layers all at once.
      * @param edges the edges to draw to the canvas
+     * @return the number of edges that were drawn
      * @throws ConcurrentFreezeActionException if called while {@link #freeze()} is still executing
      * @see #draw(DrawableEdge)
-     * @see #draw(ArrayList, ArrayList)
+     * @see #draw(Collection, Collection)
      */
-    public void drawEdges(ArrayList<DrawableEdge> edges) {
-        for (DrawableEdge edge : edges) draw(edge);
+    @Override
+    public int drawEdges(Collection<? extends DrawableEdge> edges) {
+        if (freezing) throw new ConcurrentFreezeActionException("draw edges to canvas");
+        ArrayList<Node> newEdges = new ArrayList<>();
+        ArrayList<Node> newWeights = new ArrayList<>();
+        boolean arrowsShown = detailLevel == Viewport.DetailLevel.FULL;
+        for (DrawableEdge edge : edges) {
+            if (!storedEdges.add(edge)) continue;
+            if (edge.isArrowShown() != arrowsShown) edge.setArrowShown(arrowsShown);
+            newEdges.add(edge);
+            if (edge instanceof WeightedDrawableEdge weightedEdge) newWeights.add(weightedEdge.getWeight());
+        }
+        edgeLayer.addAll(newEdges);
+        edgeWeightLayer.addAll(newWeights);
+        if (!newEdges.isEmpty()) positionsChanged();
+        return newEdges.size();
     }
 
     /**
@@ -282,49 +293,180 @@ public class Canvas extends Parent {
      * @param nodes the nodes to draw to the canvas, can be null
      * @param edges the edges to draw to the canvas, can be null
      * @throws ConcurrentFreezeActionException if called while {@link #freeze()} is still executing
-     * @see #drawNodes(ArrayList)
-     * @see #drawEdges(ArrayList)
+     * @see #drawNodes(Collection)
+     * @see #drawEdges(Collection)
      */
-    public void draw(ArrayList<DrawableNode> nodes, ArrayList<DrawableEdge> edges) {
+    @Override
+    public void draw(Collection<? extends DrawableNode> nodes, Collection<? extends DrawableEdge> edges) {
         if (nodes != null) drawNodes(nodes);
         if (edges != null) drawEdges(edges);
     }
 
     /**
      * Remove a node from the canvas. If the canvas is frozen, instead the node will be removed from the stored nodes
-     * and will not be drawn when the canvas is unfrozen. Will remove all instances of the node and all weights
-     * associated with the node.
+     * and will not be drawn when the canvas is unfrozen. Will remove the node and all weights associated with the
+     * node.
      * @param node the node to remove from the canvas
      * @throws ConcurrentFreezeActionException if called while {@link #freeze()} is still executing
      */
+    @Override
     public void remove(DrawableNode node) {
         if (freezing) throw new ConcurrentFreezeActionException("remove node \"" + node.toString() + "\" from canvas");
-        if (frozen) {
-            while (frozenNodes.remove(node));
-            if ((node instanceof WeightedDrawableNode weightedNode)) while (frozenNodes.remove(weightedNode));
-        }
-        else {
-            while (getChildren().remove(node));
-            if ((node instanceof WeightedDrawableNode weightedNode)) while (getChildren().remove(weightedNode));
-        }
+        if (!storedNodes.remove(node)) return;
+        nodeLayer.remove(node);
+        if (node instanceof WeightedDrawableNode weightedNode) nodeWeightLayer.remove(weightedNode.getWeight());
+        index = null;
     }
 
     /**
      * Remove an edge from the canvas. If the canvas is frozen, instead the edge will be removed from the stored edges
-     * and will not be drawn when the canvas is unfrozen. Will remove all instances of the edge and all weights
-     * associated with the edge.
+     * and will not be drawn when the canvas is unfrozen. Will remove the edge and all weights associated with the
+     * edge.
      * @param edge the edge to remove from the canvas
      * @throws ConcurrentFreezeActionException if called while {@link #freeze()} is still executing
      */
+    @Override
     public void remove(DrawableEdge edge) {
         if (freezing) throw new ConcurrentFreezeActionException("remove edge \"" + edge.toString() + "\" from canvas");
-        if (frozen) {
-            while (frozenNodes.remove(edge));
-            if ((edge instanceof WeightedDrawableEdge weightedEdge)) while (frozenNodes.remove(weightedEdge));
+        if (!storedEdges.remove(edge)) return;
+        edgeLayer.remove(edge);
+        if (edge instanceof WeightedDrawableEdge weightedEdge) edgeWeightLayer.remove(weightedEdge.getWeight());
+        index = null;
+    }
+
+    /**
+     * Does nothing, the scene graph redraws the elements itself.
+     */
+    @Override
+    public void requestRedraw() {
+    }
+
+    /**
+     * The shown elements are found again on the next frame.
+     */
+    @Override
+    public void positionsChanged() {
+        index = null;
+        requestCull();
+    }
+
+    /**
+     * Move and scale the canvas to show the region in the viewport, and show or hide the detail of every element if
+     * the detail level has changed. The shown elements are found again on the next frame.
+     */
+    @Override
+    public void viewportChanged() {
+        scale.setX(viewport.getScale());
+        scale.setY(viewport.getScale());
+        translate.setX(-viewport.getX());
+        translate.setY(-viewport.getY());
+
+        Viewport.DetailLevel newDetailLevel = viewport.getDetailLevel();
+        if (newDetailLevel != detailLevel) {
+            detailLevel = newDetailLevel;
+            boolean dots = detailLevel == Viewport.DetailLevel.DOTS;
+            boolean full = detailLevel == Viewport.DetailLevel.FULL;
+            for (DrawableNode node : storedNodes) node.setShownAsDot(dots);
+            for (DrawableEdge edge : storedEdges) edge.setArrowShown(full);
+            if (!frozen) {
+                nodeWeightLayer.group.setVisible(full);
+                edgeWeightLayer.group.setVisible(full);
+            }
         }
-        else {
-            while (getChildren().remove(edge));
-            if ((edge instanceof WeightedDrawableEdge weightedEdge)) while (getChildren().remove(weightedEdge));
+        requestCull();
+    }
+
+    /**
+     * Find the shown elements again on the next frame. Nothing is run on frames where no cull has been requested.
+     */
+    private void requestCull() {
+        cullRequested = true;
+        if (!stopped) AnimationScheduler.getShared().schedule(cullAnimation);
+    }
+
+    /**
+     * Show only the stored elements that overlap the viewport, or every stored element if the whole graph is in view.
+     * Weights are shown with the element they belong to.
+     */
+    private void cull() {
+        cullRequested = false;
+        if (viewport.showsWholeGraph()) {
+            nodeLayer.show(null);
+            edgeLayer.show(null);
+            nodeWeightLayer.show(null);
+            edgeWeightLayer.show(null);
+            return;
+        }
+
+        ArrayList<DrawableNode> nodes = new ArrayList<>();
+        for (Node element : nodeLayer.elements) nodes.add((DrawableNode) element);
+        ArrayList<DrawableEdge> edges = new ArrayList<>();
+        for (Node element : edgeLayer.elements) edges.add((DrawableEdge) element);
+        if (index == null) index = new ElementIndex(nodes, edges);
+
+        Set<Node> visible = Collections.newSetFromMap(new IdentityHashMap<>());
+        double minX = viewport.getX(), minY = viewport.getY(), maxX = viewport.getMaxX(), maxY = viewport.getMaxY();
+        for (int position : index.nodesIn(minX, minY, maxX, maxY)) visible.add(nodes.get(position));
+        for (int position : index.edgesIn(minX, minY, maxX, maxY)) visible.add(edges.get(position));
+
+        nodeLayer.show(visible::contains);
+        edgeLayer.show(visible::contains);
+        nodeWeightLayer.show(weight -> visible.contains(((WeightedDrawableNode.Weight) weight).node()));
+        edgeWeightLayer.show(weight -> visible.contains(((WeightedDrawableEdge.Weight) weight).edge()));
+    }
+
+    /**
+     * One layer of the canvas. The group shows the stored elements of the layer that are in view, and is not changed
+     * while the canvas is frozen.
+     */
+    private class Layer {
+        private final Group group = new Group();
+        /**Every element stored in the layer in the order they were drawn, whether it is shown or not.*/
+        private final ArrayList<Node> elements = new ArrayList<>();
+
+        /**
+         * Store elements in the layer. They are shown straight away unless the canvas is frozen, and are hidden again
+         * on the next frame if they are out of view.
+         */
+        private void addAll(Collection<? extends Node> newElements) {
+            if (newElements.isEmpty()) return;
+            elements.addAll(newElements);
+            if (!frozen) group.getChildren().addAll(newElements);
+        }
+
+        private void remove(Node element) {
+            // Elements are compared by identity, as copies of nodes and edges are equal to the originals
+            removeByIdentity(elements, element);
+            if (!frozen) removeByIdentity(group.getChildren(), element);
+        }
+
+        private void clear() {
+            elements.clear();
+            if (!frozen) group.getChildren().clear();
+        }
+
+        /**
+         * Show only the stored elements accepted by a filter, in the order they were drawn. The group is only changed
+         * if the shown elements are different.
+         * @param filter decides if an element is shown, null to show every element
+         */
+        private void show(Predicate<Node> filter) {
+            ArrayList<Node> shown = new ArrayList<>();
+            for (Node element : elements) if (filter == null || filter.test(element)) shown.add(element);
+
+            ObservableList<Node> children = group.getChildren();
+            boolean changed = shown.size() != children.size();
+            for (int i = 0; !changed && i < shown.size(); i++) changed = shown.get(i) != children.get(i);
+            if (changed) children.setAll(shown);
+        }
+    }
+
+    private static void removeByIdentity(List<Node> elements, Node element) {
+        for (int i = elements.size() - 1; i >= 0; i--) {
+            if (elements.get(i) == element) {
+                elements.remove(i);
+                return;
+            }
         }
     }
 }
@@ -0,0 +1,64 @@
+package visualiser.graphics.canvas;
+
+import visualiser.graphics.objects.DrawableEdge;
+import visualiser.graphics.objects.DrawableNode;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Spatial indexes of the nodes and edges stored on a canvas, built from their positions when the index is created.
+ * Nodes are indexed by the bounding box of their circle and edges by the bounding box of their hover mask. Elements
+ * are found by their position in the lists the index was built from, and are returned in that order so that they can
+ * be drawn in the order they were stored.
+ */
+class ElementIndex {
+    private final SpatialGrid<Integer> nodeGrid;
+    private final SpatialGrid<Integer> edgeGrid;
+
+    ElementIndex(List<? extends DrawableNode> nodes, List<? extends DrawableEdge> edges) {
+        // Most nodes are the same size, so cells the size of the largest node hold few elements each
+        double largestRadius = DrawableEdge.HOVER_MASK_WIDTH/2;
+        for (DrawableNode node : nodes) largestRadius = Math.max(largestRadius, node.getNodeRadius());
+
+        nodeGrid = new SpatialGrid<>(largestRadius * 2);
+        for (int i = 0; i < nodes.size(); i++) {
+            DrawableNode node = nodes.get(i);
+            Point centre = node.getCentre();
+            double radius = node.getNodeRadius();
+            nodeGrid.add(i, centre.getX() - radius, centre.getY() - radius, centre.getX() + radius, centre.getY() + radius);
+        }
+
+        edgeGrid = new SpatialGrid<>(largestRadius * 2);
+        double halfWidth = DrawableEdge.HOVER_MASK_WIDTH/2;
+        for (int i = 0; i < edges.size(); i++) {
+            DrawableEdge edge = edges.get(i);
+            Point start = edge.getStartPoint();
+            Point end = edge.getEndPoint();
+            edgeGrid.add(i, Math.min(start.getX(), end.getX()) - halfWidth, Math.min(start.getY(), end.getY()) - halfWidth,
+                    Math.max(start.getX(), end.getX()) + halfWidth, Math.max(start.getY(), end.getY()) + halfWidth);
+        }
+    }
+
+    /**
+     * @return the positions of the nodes whose bounds overlap an area, in ascending order
+     */
+    int[] nodesIn(double minX, double minY, double maxX, double maxY) {
+        return sorted(nodeGrid.find(minX, minY, maxX, maxY));
+    }
+
+    /**
+     * @return the positions of the edges whose bounds overlap an area, in ascending order
+     */
+    int[] edgesIn(double minX, double minY, double maxX, double maxY) {
+        return sorted(edgeGrid.find(minX, minY, maxX, maxY));
+    }
+
+    private static int[] sorted(ArrayList<Integer> positions) {
+        int[] sortedPositions = new int[positions.size()];
+        for (int i = 0; i < sortedPositions.length; i++) sortedPositions[i] = positions.get(i);
+        Arrays.sort(sortedPositions);
+        return sortedPositions;
+    }
+}
@@ -0,0 +1,121 @@
+package visualiser.graphics.canvas;
+
+import visualiser.graphics.objects.DrawableEdge;
+import visualiser.graphics.objects.DrawableNode;
+
+import java.util.Collection;
+
+/**
+ * Displays the nodes and edges of a graph. {@link Canvas} adds the elements to the scene graph, while
+ * {@link ImmediateCanvas} paints the elements itself and is used for large graphs.
+ * <br/>Elements are always shown in the same order from bottom to top, no matter the order they were drawn in:
+ * <br/>nodes -> edges -> node weights -> edge weights
+ * <br/>Each canvas shows the region of the graph in a {@link Viewport}, and only shows as much detail of each element as
+ * the viewport's {@link Viewport.DetailLevel detail level} allows.
+ */
+public interface GraphCanvas {
+
+    /**
+     * Freeze the canvas if it is currently unfrozen, unfreeze if it is frozen.
+     */
+    void toggleFrozen();
+
+    /**
+     * @param frozen true to freeze the canvas, false to unfreeze
+     */
+    void setFrozen(boolean frozen);
+
+    /**
+     * Freeze the canvas. The canvas keeps showing the elements as they are now, every draw/remove method call applies
+     * only to the stored elements and is shown once the canvas is unfrozen.
+     */
+    void freeze();
+
+    /**
+     * Unfreeze the canvas and show the stored elements as they are now.
+     */
+    void unfreeze();
+
+    /**
+     * @return true if the canvas is frozen
+     */
+    boolean isFrozen();
+
+    /**
+     * Remove all elements from the canvas.
+     */
+    void clear();
+
+    /**
+     * @param node the node to search for, copies of a node are not the same node
+     * @return true if the node is stored on the canvas, whether the canvas is frozen or not
+     */
+    boolean exists(DrawableNode node);
+
+    /**
+     * @param edge the edge to search for, copies of an edge are not the same edge
+     * @return true if the edge is stored on the canvas, whether the canvas is frozen or not
+     */
+    boolean exists(DrawableEdge edge);
+
+    /**
+     * Draw a node to the canvas. If the node already exists then nothing will happen.
+     * @return true if the node was drawn, false if the node already existed on the canvas
+     */
+    boolean draw(DrawableNode node);
+
+    /**
+     * Draw multiple nodes to the canvas. Only nodes that do not already exist on the canvas will be added.
+     * @return the number of nodes that were drawn
+     */
+    int drawNodes(Collection<? extends DrawableNode> nodes);
+
+    /**
+     * Draw an edge to the canvas. If the edge already exists then nothing will happen.
+     * @return true if the edge was drawn, false if the edge already existed on the canvas
+     */
+    boolean draw(DrawableEdge edge);
+
+    /**
+     * Draw multiple edges to the canvas. Only edges that do not already exist on the canvas will be added.
+     * @return the number of edges that were drawn
+     */
+    int drawEdges(Collection<? extends DrawableEdge> edges);
+
+    /**
+     * Draw multiple nodes and multiple edges to the canvas.
+     * @param nodes the nodes to draw to the canvas, can be null
+     * @param edges the edges to draw to the canvas, can be null
+     */
+    void draw(Collection<? extends DrawableNode> nodes, Collection<? extends DrawableEdge> edges);
+
+    /**
+     * Remove a node and its weight from the canvas.
+     */
+    void remove(DrawableNode node);
+
+    /**
+     * Remove an edge and its weight from the canvas.
+     */
+    void remove(DrawableEdge edge);
+
+    /**
+     * Called when the colour or visibility of an element on the canvas has changed.
+     */
+    void requestRedraw();
+
+    /**
+     * Called when an element on the canvas has moved or changed size.
+     */
+    void positionsChanged();
+
+    /**
+     * Called when the {@link Viewport} shown by the canvas has been zoomed, panned or resized.
+     */
+    void viewportChanged();
+
+    /**
+     * Stop updating the canvas. Called once the canvas is no longer shown.
+     */
+    void stop();
+}
@@ -0,0 +1,344 @@
+package visualiser.graphics.canvas;
+
+import visualiser.graphics.logic.AnimationScheduler;
+import visualiser.graphics.objects.*;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.input.MouseEvent;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Displays the nodes and edges of a graph by painting them onto a single {@link javafx.scene.canvas.Canvas}, instead
+ * of adding them to the scene graph. This avoids the layout and CSS passes of the scene graph, which take up most of
+ * the time of each frame on large graphs. The canvas is painted at most once per frame, on the
+ * {@link AnimationScheduler#getShared() shared animation scheduler}, and only after an element or the viewport has
+ * changed. Nothing runs on frames where the canvas has not changed.
+ * <br/>Elements are shown in the same order as on a {@link Canvas}, from bottom to top:
+ * <br/>nodes -> edges -> node weights -> edge weights
+ * <br/>The canvas is the size of its {@link Viewport} and paints the region of the graph in view. While only part of
+ * the graph is in view, only the elements whose bounds overlap the viewport are painted, found with an
+ * {@link ElementIndex index} of the element positions. As the viewport zooms out weights and arrows are left out and
+ * then nodes are painted as dots, see {@link Viewport.DetailLevel}.
+ * <br/>The hovered node or edge is found using the same index, and its hover action is run in the same way as if it
+ * had been hovered in the scene graph. Weights are not hovered.
+ */
+public class ImmediateCanvas extends javafx.scene.canvas.Canvas implements GraphCanvas {
+    private boolean frozen = false;
+    private boolean redrawRequested = true;
+    private boolean positionsChanged = true;
+    /**The nodes and edges stored on the canvas, in the order they were drawn.*/
+    private final ArrayList<DrawableNode> nodes = new ArrayList<>();
+    private final ArrayList<DrawableEdge> edges = new ArrayList<>();
+    /**The same nodes and edges compared by identity, as copies of nodes and edges are equal to the originals.*/
+    private final Set<DrawableNode> storedNodes = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Set<DrawableEdge> storedEdges = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Viewport viewport;
+    private ElementIndex index = null;
+    private DrawableNode hoveredNode = null;
+    private DrawableEdge hoveredEdge = null;
+    /**The position of the pointer in the viewport.*/
+    private double pointerX, pointerY;
+    private boolean pointerInside = false;
+    private boolean stopped = false;
+    /**Paints the canvas on the next frame, only scheduled while a redraw has been requested.*/
+    private final AnimationScheduler.Animation paintAnimation = (now, deadline) -> {
+        if (frozen) return true;
+        if (positionsChanged && pointerInside) updateHover();
+        if (redrawRequested) render();
+        return true;
+    };
+
+    /**
+     * @param viewport the viewport that the canvas shows
+     */
+    public ImmediateCanvas(Viewport viewport) {
+        super(viewport.getWidth(), viewport.getHeight());
+        this.viewport = viewport;
+        addEventHandler(MouseEvent.MOUSE_MOVED, event -> {
+            pointerX = event.getX();
+            pointerY = event.getY();
+            pointerInside = true;
+            if (!frozen) updateHover();
+        });
+        addEventHandler(MouseEvent.MOUSE_EXITED, event -> {
+            pointerInside = false;
+            if (!frozen) setHovered(null, null);
+        });
+        schedulePaint();
+    }
+
+    /**
+     * Stop painting the canvas and stop hovering elements.
+     */
+    @Override
+    public void stop() {
+        stopped = true;
+        AnimationScheduler.getShared().cancel(paintAnimation);
+        setHovered(null, null);
+    }
+
+    @Override
+    public void toggleFrozen() {
+        setFrozen(!frozen);
+    }
+
+    @Override
+    public void setFrozen(boolean frozen) {
+        if (frozen) freeze();
+        else unfreeze();
+    }
+
+    /**
+     * Freeze the canvas. The canvas is not painted again until it is unfrozen, so it keeps showing the elements as
+     * they were when it was frozen. Draw/remove method calls still apply to the stored elements and are shown once
+     * the canvas is unfrozen. Nothing is hovered while the canvas is frozen.
+     */
+    @Override
+    public void freeze() {
+        frozen = true;
+    }
+
+    /**
+     * Unfreeze the canvas, the stored elements are shown as they are now on the next frame.
+     */
+    @Override
+    public void unfreeze() {
+        if (!frozen) return;
+        frozen = false;
+        positionsChanged();
+    }
+
+    @Override
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    @Override
+    public void clear() {
+        setHovered(null, null);
+        nodes.clear();
+        edges.clear();
+        storedNodes.clear();
+        storedEdges.clear();
+        positionsChanged();
+    }
+
+    @Override
+    public boolean exists(DrawableNode node) {
+        return storedNodes.contains(node);
+    }
+
+    @Override
+    public boolean exists(DrawableEdge edge) {
+        return storedEdges.contains(edge);
+    }
+
+    @Override
+    public boolean draw(DrawableNode node) {
+        return drawNodes(List.of(node)) == 1;
+    }
+
+    @Override
+    public int drawNodes(Collection<? extends DrawableNode> nodes) {
+        int drawnCount = 0;
+        for (DrawableNode node : nodes) {
+            if (!storedNodes.add(node)) continue;
+            this.nodes.add(node);
+            drawnCount++;
+        }
+        if (drawnCount > 0) positionsChanged();
+        return drawnCount;
+    }
+
+    @Override
+    public boolean draw(DrawableEdge edge) {
+        return drawEdges(List.of(edge)) == 1;
+    }
+
+    @Override
+    public int drawEdges(Collection<? extends DrawableEdge> edges) {
+        int drawnCount = 0;
+        for (DrawableEdge edge : edges) {
+            if (!storedEdges.add(edge)) continue;
+            this.edges.add(edge);
+            drawnCount++;
+        }
+        if (drawnCount > 0) positionsChanged();
+        return drawnCount;
+    }
+
+    @Override
+    public void draw(Collection<? extends DrawableNode> nodes, Collection<? extends DrawableEdge> edges) {
+        if (nodes != null) drawNodes(nodes);
+        if (edges != null) drawEdges(edges);
+    }
+
+    @Override
+    public void remove(DrawableNode node) {
+        if (!storedNodes.remove(node)) return;
+        if (node == hoveredNode) setHovered(null, null);
+        removeByIdentity(nodes, node);
+        positionsChanged();
+    }
+
+    @Override
+    public void remove(DrawableEdge edge) {
+        if (!storedEdges.remove(edge)) return;
+        if (edge == hoveredEdge) setHovered(null, null);
+        removeByIdentity(edges, edge);
+        positionsChanged();
+    }
+
+    private static <T> void removeByIdentity(List<T> elements, T element) {
+        for (int i = elements.size() - 1; i >= 0; i--) {
+            if (elements.get(i) == element) {
+                elements.remove(i);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void requestRedraw() {
+        redrawRequested = true;
+        schedulePaint();
+    }
+
+    @Override
+    public void positionsChanged() {
+        redrawRequested = true;
+        positionsChanged = true;
+        schedulePaint();
+    }
+
+    /**
+     * Paint the canvas on the next frame. Nothing is run on frames where the canvas has not changed.
+     */
+    private void schedulePaint() {
+        if (!stopped) AnimationScheduler.getShared().schedule(paintAnimation);
+    }
+
+    /**
+     * Resize the canvas to match the viewport and paint it again on the next frame.
+     */
+    @Override
+    public void viewportChanged() {
+        if (getWidth() != viewport.getWidth()) setWidth(viewport.getWidth());
+        if (getHeight() != viewport.getHeight()) setHeight(viewport.getHeight());
+        requestRedraw();
+        if (pointerInside && !frozen) updateHover();
+    }
+
+    /**
+     * Paint the stored elements in view onto the canvas, with as much detail as the viewport allows.
+     */
+    private void render() {
+        redrawRequested = false;
+        GraphicsContext gc = getGraphicsContext2D();
+        gc.setTransform(1, 0, 0, 1, 0, 0);
+        gc.clearRect(0, 0, getWidth(), getHeight());
+        double scale = viewport.getScale();
+        gc.setTransform(scale, 0, 0, scale, -viewport.getX() * scale, -viewport.getY() * scale);
+
+        // When the whole graph is in view every element is painted, so there is no need to find the ones in view
+        List<DrawableNode> shownNodes = nodes;
+        List<DrawableEdge> shownEdges = edges;
+        if (!viewport.showsWholeGraph()) {
+            updateIndex();
+            shownNodes = new ArrayList<>();
+            shownEdges = new ArrayList<>();
+            double minX = viewport.getX(), minY = viewport.getY(), maxX = viewport.getMaxX(), maxY = viewport.getMaxY();
+            for (int position : index.nodesIn(minX, minY, maxX, maxY)) shownNodes.add(nodes.get(position));
+            for (int position : index.edgesIn(minX, minY, maxX, maxY)) shownEdges.add(edges.get(position));
+        }
+
+        switch (viewport.getDetailLevel()) {
+            case FULL -> {
+                for (DrawableNode node : shownNodes) node.render(gc);
+                for (DrawableEdge edge : shownEdges) edge.render(gc);
+                for (DrawableNode node : shownNodes)
+                    if (node instanceof WeightedDrawableNode weightedNode) weightedNode.getWeight().render(gc);
+                for (DrawableEdge edge : shownEdges)
+                    if (edge instanceof WeightedDrawableEdge weightedEdge) weightedEdge.getWeight().render(gc);
+            }
+            case REDUCED -> {
+                for (DrawableNode node : shownNodes) node.render(gc);
+                for (DrawableEdge edge : shownEdges) edge.renderLine(gc, DrawableEdge.LINE_SIZE);
+            }
+            case DOTS -> {
+                // Keep lines at least one pixel wide so that they do not fade away
+                double lineWidth = Math.max(DrawableEdge.LINE_SIZE, 1 / scale);
+                for (DrawableNode node : shownNodes) node.renderDot(gc);
+                for (DrawableEdge edge : shownEdges) edge.renderLine(gc, lineWidth);
+            }
+        }
+    }
+
+    /**
+     * Rebuild the index if any element has moved since it was built.
+     */
+    private void updateIndex() {
+        if (!positionsChanged && index != null) return;
+        positionsChanged = false;
+        index = new ElementIndex(nodes, edges);
+    }
+
+    /**
+     * Find the element under the pointer and hover it. Edges are shown above nodes so they are hovered first, if
+     * there is more than one element under the pointer the one closest to it is hovered.
+     */
+    private void updateHover() {
+        updateIndex();
+        double x = viewport.toGraphX(pointerX), y = viewport.toGraphY(pointerY);
+
+        DrawableEdge closestEdge = null;
+        double closestDistance = Double.POSITIVE_INFINITY;
+        for (int position : index.edgesIn(x, y, x, y)) {
+            DrawableEdge edge = edges.get(position);
+            if (!edge.hoverMaskContains(x, y)) continue;
+            Point closest = edge.closestPointTo(x, y);
+            double distance = closest == null ? 0 : closest.distanceTo(x, y);
+            if (distance < closestDistance) {
+                closestEdge = edge;
+                closestDistance = distance;
+            }
+        }
+        if (closestEdge != null) {
+            setHovered(null, closestEdge);
+            return;
+        }
+
+        DrawableNode closestNode = null;
+        for (int position : index.nodesIn(x, y, x, y)) {
+            DrawableNode node = nodes.get(position);
+            double distance = node.getCentre().distanceTo(x, y);
+            if (distance <= node.getNodeRadius() && distance < closestDistance) {
+                closestNode = node;
+                closestDistance = distance;
+            }
+        }
+        setHovered(closestNode, null);
+    }
+
+    /**
+     * Change the hovered element, running the hover actions of the elements that the pointer has left and entered.
+     * At most one of the node and edge is hovered.
+     */
+    private void setHovered(DrawableNode node, DrawableEdge edge) {
+        if (node == hoveredNode && edge == hoveredEdge) return;
+        DrawableNode previousNode = hoveredNode;
+        DrawableEdge previousEdge = hoveredEdge;
+        hoveredNode = node;
+        hoveredEdge = edge;
+        if (previousNode != null && previousNode != node) previousNode.handleHover(false);
+        if (previousEdge != null && previousEdge != edge) previousEdge.handleHover(false);
+        if (node != null && node != previousNode) node.handleHover(true);
+        if (edge != null && edge != previousEdge) edge.handleHover(true);
+        requestRedraw();
+    }
+}
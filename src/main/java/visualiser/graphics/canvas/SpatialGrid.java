@@ -0,0 +1,147 @@
+package visualiser.graphics.canvas;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Stores elements by their bounding boxes, so that the elements in an area of the graph can be found without checking
+ * every element.
+ * <br/>The grid is made of levels, the cells of the first level have the given cell size and the cells of each level
+ * after are twice as large as the one before. Each element is stored once, on the first level where its bounding box
+ * is no larger than a cell, in the cell containing the top left corner of its bounding box. An element can then only
+ * reach into the cell it is stored in and the cells next to it, no matter how large it is, so only a few cells of each
+ * level need to be checked to find it. Only cells that hold an element are kept.
+ * @param <T> the type of element stored in the grid
+ */
+public class SpatialGrid<T> {
+    private final double cellSize;
+    private final ArrayList<HashMap<Long, ArrayList<Entry<T>>>> levels = new ArrayList<>();
+    private int size = 0;
+
+    /**
+     * @param cellSize the width and height of each cell on the first level, must be greater than 0. Searches are
+     *                 fastest when most elements are no larger than this.
+     */
+    public SpatialGrid(double cellSize) {
+        if (!(cellSize > 0)) throw new IllegalArgumentException("Cell size must be greater than 0");
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * @return the width and height of each cell on the first level
+     */
+    public double getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * @return the number of elements stored in the grid
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Remove every element from the grid.
+     */
+    public void clear() {
+        levels.clear();
+        size = 0;
+    }
+
+    /**
+     * Store an element at a point.
+     */
+    public void add(T element, double x, double y) {
+        add(element, x, y, x, y);
+    }
+
+    /**
+     * Store an element with a bounding box.
+     * @param minX the left of the bounding box
+     * @param minY the top of the bounding box
+     * @param maxX the right of the bounding box, must be no less than minX
+     * @param maxY the bottom of the bounding box, must be no less than minY
+     */
+    public void add(T element, double minX, double minY, double maxX, double maxY) {
+        if (!(maxX >= minX && maxY >= minY))
+            throw new IllegalArgumentException("Bounding box must have a non-negative width and height");
+
+        // Find the first level where the bounding box fits in a cell
+        double largestSide = Math.max(maxX - minX, maxY - minY);
+        int level = 0;
+        double levelCellSize = cellSize;
+        while (levelCellSize < largestSide) {
+            levelCellSize *= 2;
+            level++;
+        }
+        while (levels.size() <= level) levels.add(new HashMap<>());
+
+        long key = cellKey((int) Math.floor(minX / levelCellSize), (int) Math.floor(minY / levelCellSize));
+        levels.get(level).computeIfAbsent(key, ignored -> new ArrayList<>())
+                .add(new Entry<>(element, minX, minY, maxX, maxY));
+        size++;
+    }
+
+    /**
+     * Find every element whose bounding box overlaps an area.
+     * @return each element found, once, in no particular order
+     */
+    public ArrayList<T> find(double minX, double minY, double maxX, double maxY) {
+        ArrayList<T> found = new ArrayList<>();
+        double levelCellSize = cellSize;
+        for (HashMap<Long, ArrayList<Entry<T>>> level : levels) {
+            if (!level.isEmpty()) {
+                // Elements reach at most one cell past the cell they are stored in
+                int firstX = (int) Math.floor(minX / levelCellSize) - 1, lastX = (int) Math.floor(maxX / levelCellSize);
+                int firstY = (int) Math.floor(minY / levelCellSize) - 1, lastY = (int) Math.floor(maxY / levelCellSize);
+                if ((long) (lastX - firstX + 1) * (lastY - firstY + 1) > level.size()) {
+                    // The area covers more cells than the level holds, so check every stored cell instead
+                    for (ArrayList<Entry<T>> cell : level.values()) addOverlapping(cell, found, minX, minY, maxX, maxY);
+                } else {
+                    for (int cellX = firstX; cellX <= lastX; cellX++) {
+                        for (int cellY = firstY; cellY <= lastY; cellY++) {
+                            ArrayList<Entry<T>> cell = level.get(cellKey(cellX, cellY));
+                            if (cell != null) addOverlapping(cell, found, minX, minY, maxX, maxY);
+                        }
+                    }
+                }
+            }
+            levelCellSize *= 2;
+        }
+        return found;
+    }
+
+    /**
+     * Find every element whose bounding box contains a point.
+     * @return each element found, once, in no particular order
+     */
+    public ArrayList<T> findAt(double x, double y) {
+        return find(x, y, x, y);
+    }
+
+    private static <T> void addOverlapping(ArrayList<Entry<T>> cell, ArrayList<T> found,
+                                           double minX, double minY, double maxX, double maxY) {
+        for (Entry<T> entry : cell) {
+            if (entry.minX <= maxX && entry.maxX >= minX && entry.minY <= maxY && entry.maxY >= minY)
+                found.add(entry.element);
+        }
+    }
+
+    private static long cellKey(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+    }
+
+    private static class Entry<T> {
+        private final T element;
+        private final double minX, minY, maxX, maxY;
+
+        private Entry(T element, double minX, double minY, double maxX, double maxY) {
+            this.element = element;
+            this.minX = minX;
+            this.minY = minY;
+            this.maxX = maxX;
+            this.maxY = maxY;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package visualiser.graphics.canvas;
+
+/**
+ * The part of a graph that is shown on screen. The viewport has a size on screen and shows a region of the graph,
+ * which can be zoomed and panned. The graph can be zoomed out past the scale where it fits in the viewport, down to
+ * {@link #MIN_SCALE}, and can only be panned while part of it is out of view.
+ * <br/>As the graph is zoomed out less detail is shown, see {@link DetailLevel}.
+ */
+public class Viewport {
+    public static final double MAX_SCALE = 4d;
+    /**The graph can always be zoomed out to this scale, even once it fits in the viewport, so that every
+     * {@link DetailLevel} can be reached.*/
+    public static final double MIN_SCALE = 0.1d;
+    /**Weights and arrows are hidden below this scale.*/
+    public static final double REDUCED_DETAIL_SCALE = 0.5d;
+    /**Nodes are drawn as dots below this scale.*/
+    public static final double DOT_SCALE = 0.2d;
+
+    /**
+     * How much of each element is drawn.
+     */
+    public enum DetailLevel {
+        /**Every part of every element is drawn.*/
+        FULL,
+        /**Weights and arrows are not drawn.*/
+        REDUCED,
+        /**Weights and arrows are not drawn, and nodes are drawn as dots in their border colour without their text.*/
+        DOTS
+    }
+
+    private final double graphWidth, graphHeight;
+    private double width, height;
+    private double scale = 1;
+    /**The position on the graph shown at the top left corner of the viewport.*/
+    private double x = 0, y = 0;
+    private Runnable changeAction;
+
+    /**
+     * Create a viewport that shows the graph at its full size, starting from the top left corner of the graph.
+     * @param graphWidth the width of the graph
+     * @param graphHeight the height of the graph
+     * @param width the width of the viewport on screen
+     * @param height the height of the viewport on screen
+     */
+    public Viewport(double graphWidth, double graphHeight, double width, double height) {
+        if (!(graphWidth > 0 && graphHeight > 0)) throw new IllegalArgumentException("Graph size must be greater than 0");
+        this.graphWidth = graphWidth;
+        this.graphHeight = graphHeight;
+        setSize(width, height);
+    }
+
+    /**
+     * Set the action run whenever the viewport is zoomed, panned or resized.
+     * @param changeAction the action to be stored, can be null
+     */
+    public void setChangeAction(Runnable changeAction) {
+        this.changeAction = changeAction;
+    }
+
+    /**
+     * Set the size of the viewport on screen. The graph stays at the same scale where possible.
+     * @param width the width of the viewport, must be greater than 0
+     * @param height the height of the viewport, must be greater than 0
+     */
+    public void setSize(double width, double height) {
+        if (!(width > 0 && height > 0)) throw new IllegalArgumentException("Viewport size must be greater than 0");
+        this.width = width;
+        this.height = height;
+        update(scale);
+    }
+
+    /**
+     * Zoom the graph in or out, keeping the point of the graph under a position of the viewport in place.
+     * @param factor the amount to multiply the scale by, greater than 1 to zoom in and less than 1 to zoom out
+     * @param viewX the x position in the viewport to zoom around
+     * @param viewY the y position in the viewport to zoom around
+     */
+    public void zoomAt(double factor, double viewX, double viewY) {
+        if (!(factor > 0)) throw new IllegalArgumentException("Zoom factor must be greater than 0");
+        double graphX = toGraphX(viewX), graphY = toGraphY(viewY);
+        double newScale = Math.max(getMinScale(), Math.min(MAX_SCALE, scale * factor));
+        x = graphX - viewX / newScale;
+        y = graphY - viewY / newScale;
+        update(newScale);
+    }
+
+    /**
+     * Move the graph across the viewport.
+     * @param dx the distance to move the graph to the right, in viewport pixels
+     * @param dy the distance to move the graph down, in viewport pixels
+     */
+    public void panBy(double dx, double dy) {
+        x -= dx / scale;
+        y -= dy / scale;
+        update(scale);
+    }
+
+    /**
+     * Zoom out to show the whole graph.
+     */
+    public void showWholeGraph() {
+        update(getFitScale());
+    }
+
+    /**
+     * Apply a new scale, keep the shown region within the graph and run the change action.
+     */
+    private void update(double newScale) {
+        scale = Math.max(getMinScale(), Math.min(MAX_SCALE, newScale));
+
+        // Centre the graph along any axis where it fits in the viewport, otherwise keep the region within the graph
+        double visibleWidth = width / scale, visibleHeight = height / scale;
+        if (visibleWidth >= graphWidth) x = (graphWidth - visibleWidth) / 2;
+        else x = Math.max(0, Math.min(graphWidth - visibleWidth, x));
+        if (visibleHeight >= graphHeight) y = (graphHeight - visibleHeight) / 2;
+        else y = Math.max(0, Math.min(graphHeight - visibleHeight, y));
+
+        if (changeAction != null) changeAction.run();
+    }
+
+    /**
+     * @return the largest scale where the whole graph fits in the viewport. Never greater than 1.
+     */
+    public double getFitScale() {
+        return Math.min(1, Math.min(width / graphWidth, height / graphHeight));
+    }
+
+    /**
+     * @return the smallest scale the graph can be zoomed out to, {@link #MIN_SCALE} unless the graph needs to be
+     * smaller than that to fit in the viewport
+     */
+    public double getMinScale() {
+        return Math.min(MIN_SCALE, getFitScale());
+    }
+
+    /**
+     * @return the width of the viewport on screen
+     */
+    public double getWidth() {
+        return width;
+    }
+
+    /**
+     * @return the height of the viewport on screen
+     */
+    public double getHeight() {
+        return height;
+    }
+
+    /**
+     * @return the number of viewport pixels for each unit of the graph
+     */
+    public double getScale() {
+        return scale;
+    }
+
+    /**
+     * @return the x position on the graph shown at the left of the viewport
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * @return the y position on the graph shown at the top of the viewport
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * @return the x position on the graph shown at the right of the viewport
+     */
+    public double getMaxX() {
+        return x + width / scale;
+    }
+
+    /**
+     * @return the y position on the graph shown at the bottom of the viewport
+     */
+    public double getMaxY() {
+        return y + height / scale;
+    }
+
+    /**
+     * @return true if every part of the graph is within the viewport
+     */
+    public boolean showsWholeGraph() {
+        return x <= 0 && y <= 0 && getMaxX() >= graphWidth && getMaxY() >= graphHeight;
+    }
+
+    /**
+     * Convert an x position in the viewport to a position on the graph.
+     */
+    public double toGraphX(double viewX) {
+        return x + viewX / scale;
+    }
+
+    /**
+     * Convert a y position in the viewport to a position on the graph.
+     */
+    public double toGraphY(double viewY) {
+        return y + viewY / scale;
+    }
+
+    /**
+     * @return how much of each element should be drawn at the current scale
+     */
+    public DetailLevel getDetailLevel() {
+        if (scale < DOT_SCALE) return DetailLevel.DOTS;
+        if (scale < REDUCED_DETAIL_SCALE) return DetailLevel.REDUCED;
+        return DetailLevel.FULL;
+    }
+}
@@ -0,0 +1,131 @@
+package visualiser.graphics.logic;
+
+import javafx.animation.AnimationTimer;
+
+import java.util.ArrayList;
+
+/**
+ * Runs animations on the JavaFX application thread once per frame, using a single {@link AnimationTimer} shared by
+ * every animation. Animations are timed with {@link System#nanoTime()}, the same clock as the frame times given to
+ * them, so they can move by the time that has actually passed instead of by the number of frames, and take the same
+ * time whatever the frame rate or the speed of the machine.
+ * <br/>The animations share a time budget each frame. Animations that work in steps, such as moving many nodes, run as
+ * many steps as fit before the deadline they are given and carry on from there on the next frame, so that they go as
+ * fast as the machine allows without holding up the frame.
+ * <br/>The timer only runs while an animation is scheduled. Every method must be called on the JavaFX application
+ * thread.
+ */
+public class AnimationScheduler {
+    /**The default time that the animations can take each frame, about half of a frame at 60 frames per second.*/
+    public static final long DEFAULT_FRAME_BUDGET_NANOS = 8_000_000L;
+
+    private static final AnimationScheduler shared = new AnimationScheduler();
+
+    /**
+     * An animation that is run once per frame until it has finished.
+     */
+    public interface Animation {
+        /**
+         * Run one frame of the animation.
+         * @param now the time of the frame in nanoseconds, from {@link System#nanoTime()}
+         * @param deadline the time by which the animation should return, in nanoseconds. An animation always runs at
+         *                 least once per frame, even if the deadline has already passed.
+         * @return true if the animation has finished and should not be run again, false otherwise
+         */
+        boolean frame(long now, long deadline);
+    }
+
+    private final ArrayList<Animation> animations = new ArrayList<>();
+    /**The position of the animation being run in the current frame, or -1 between frames.*/
+    private int runningPosition = -1;
+    private long frameBudget = DEFAULT_FRAME_BUDGET_NANOS;
+    private boolean running = false;
+    private final AnimationTimer timer = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            runFrame(now);
+        }
+    };
+
+    /**
+     * @return the scheduler shared by every animation of the application
+     */
+    public static AnimationScheduler getShared() {
+        return shared;
+    }
+
+    /**
+     * Run an animation every frame, starting from the next frame, until it has finished or is cancelled. If the
+     * animation is already scheduled then nothing will happen.
+     * @param animation the animation to run
+     */
+    public void schedule(Animation animation) {
+        if (isScheduled(animation)) return;
+        animations.add(animation);
+        if (!running) {
+            running = true;
+            timer.start();
+        }
+    }
+
+    /**
+     * Stop running an animation. The animation is not told that it has been cancelled.
+     * @param animation the animation to stop
+     */
+    public void cancel(Animation animation) {
+        for (int i = 0; i < animations.size(); i++) {
+            if (animations.get(i) == animation) {
+                animations.remove(i);
+                // Keep the current frame on the same animation once the ones before it have shifted back
+                if (i <= runningPosition) runningPosition--;
+                return;
+            }
+        }
+    }
+
+    /**
+     * @param animation the animation to search for
+     * @return true if the animation is scheduled and has not finished
+     */
+    public boolean isScheduled(Animation animation) {
+        for (Animation scheduled : animations) if (scheduled == animation) return true;
+        return false;
+    }
+
+    /**
+     * Set the time that the animations can take each frame, shared between every scheduled animation.
+     * @param frameBudgetNanos the time in nanoseconds, must be greater than 0
+     */
+    public void setFrameBudget(long frameBudgetNanos) {
+        if (frameBudgetNanos <= 0) throw new IllegalArgumentException("Frame budget must be greater than 0");
+        this.frameBudget = frameBudgetNanos;
+    }
+
+    /**
+     * @return the time in nanoseconds that the animations can take each frame
+     */
+    public long getFrameBudget() {
+        return frameBudget;
+    }
+
+    /**
+     * Run every scheduled animation once, in the order they were scheduled, and stop the timer once there are none
+     * left. Animations can be scheduled and cancelled by other animations during the frame, an animation scheduled
+     * during the frame is run later in the same frame. This lets work that follows from an animation, such as
+     * repainting a canvas after nodes have moved, be done on the same frame as the animation.
+     */
+    private void runFrame(long now) {
+        // The budget starts from when the animations start running rather than the start of the frame, as other
+        // work may already have been done this frame
+        long deadline = System.nanoTime() + frameBudget;
+        for (runningPosition = 0; runningPosition < animations.size(); runningPosition++) {
+            Animation animation = animations.get(runningPosition);
+            if (animation.frame(now, deadline)) cancel(animation);
+        }
+        runningPosition = -1;
+        if (animations.isEmpty()) {
+            running = false;
+            timer.stop();
+        }
+    }
+}
@@ -4,37 +4,33 @@ import visualiser.graphics.canvas.Point;
 import visualiser.graphics.Graph;
 import visualiser.graphics.objects.DrawableEdge;
 import visualiser.graphics.objects.DrawableNode;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
-import javafx.event.ActionEvent;
-import javafx.event.EventHandler;
-import javafx.util.Duration;
-
+import visualiser.layout.CompressedEdgeList;
+import visualiser.layout.ForceLayout;
+import visualiser.layout.ForceLayout.RepulsionType;
+import visualiser.layout.IterativeLayout;
+import visualiser.layout.LayoutCache;
+import javafx.application.Platform;
+
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class ForceDirectedBuilder implements GraphBuilder {
-    // todo: made all constants modifiable
-    private static final double
-            REPULSION_CONSTANT = 10000d,
-            SIDE_REPULSION_CONSTANT = 1000d,
-            SPRING_CONSTANT = 1d, // todo: make scalable based on idealEdgeLength
-            NODE_COLLISION_FORCE = 1d,
-            IDEAL_EDGE_LENGTH = DrawableNode.MIN_SPACE * 3, // todo: scale based on node size or graph size
-            EPSILON = 0.05d, // todo: probably make scalable based on repulsionConstant
-            COOLING = 0.99999d;
+    protected static final double
+            IDEAL_EDGE_LENGTH = DrawableNode.MIN_SPACE * 3; // todo: scale based on node size or graph size
     private static final int
-            MAX_ITERATIONS = 1000000000,
-            FRAME_DURATION = 1,
             SLIDE_DURATION = 3000;
-    private static final boolean sidesRepel = true;
 
-    private final Random random = new Random();
     private final AnimationType animationType;
     private final boolean drawInitialGraph;
 
     private boolean canBuild = true;
     private EndAction endAction;
+    private RepulsionType repulsionType = RepulsionType.EXACT;
+    private double theta = ForceLayout.DEFAULT_THETA;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private Long seed = null;
+    private LayoutCache layoutCache = null;
 
     /**
      * The type of animations for the force-directed graph building algorithm.
@@ -52,7 +48,7 @@ public class ForceDirectedBuilder implements GraphBuilder {
          * result.
          * @see AnimationType*/
         SLIDE_TO_END,
-        /** No animation. Produces the end result immediately.
+        /** No animation. Moves the nodes directly to the end result once the layout has finished.
          * @see AnimationType*/
         NONE
     }
@@ -88,7 +84,11 @@ public class ForceDirectedBuilder implements GraphBuilder {
 
     /**
      * Build a graph using the force-directed algorithm. This method will only execute if the previous build has
-     * completed, this includes animated builds.
+     * completed, this includes animated builds. The algorithm runs on a background thread and this method returns
+     * immediately, the {@link #setEndAction(EndAction) end action} is called on the JavaFX application thread once
+     * the build has finished.
+     * <br/>If a {@link #setLayoutCache(LayoutCache) layout cache} is set and already holds a layout of the graph then
+     * the nodes are moved to the cached positions immediately, without running the algorithm or any animation.
      * @param graph the {@link Graph graph} that is being built
      * @param nodes the {@link DrawableNode nodes} that exist on the graph
      * @param edges the {@link DrawableEdge edges} that exist on the graph
@@ -101,36 +101,111 @@ public class ForceDirectedBuilder implements GraphBuilder {
 
         if (drawInitialGraph) buildInitialGraph(graph, nodes, edges);
 
+        // The layout only knows about the nodes on the graph when the build starts, so its positions are applied to a
+        // copy of the node list that is not changed by nodes being added to or removed from the graph during the build
+        ArrayList<DrawableNode> buildNodes = new ArrayList<>(nodes);
+        LayoutInput input = new LayoutInput(graph, buildNodes);
+
+        // The cache is kept in a local so that the layout is stored in the same cache even if it is changed during the
+        // build
+        LayoutCache cache = layoutCache;
+        String cacheKey = cache == null ? null
+                : LayoutCache.createKey(input.edges, input.radii, graph.width(), graph.height(), getLayoutParameters());
+        if (cache != null && placeFromCache(cache, cacheKey, buildNodes)) {
+            stoppedRunning();
+            return;
+        }
+
         System.out.println("Applying forces.");
 
+        IterativeLayout layout = createLayout(input.x, input.y, input.radii, input.edges, graph.width(), graph.height());
+
+        // The layout is run on a background thread so that the application remains responsive. The nodes on the
+        // graph are only moved on the JavaFX application thread, either every frame or once the layout is finished
+        Runnable runLayout;
         if (animationType.equals(AnimationType.FULL_ANIMATION)) {
-            Timeline timeline = new Timeline();
-            timeline.getKeyFrames().add(new KeyFrame(Duration.millis(FRAME_DURATION),
-                    new FullFrame(graph, nodes, timeline)));
-            timeline.setCycleCount(MAX_ITERATIONS);
-            timeline.play();
+            LayoutRenderer renderer = new LayoutRenderer(graph, buildNodes);
+            AnimationScheduler.getShared().schedule(renderer);
+            runLayout = () -> {
+                try {
+                    while (!layout.isConverged()) {
+                        layout.step();
+                        renderer.publish(layout, false);
+                    }
+                } finally {
+                    renderer.publish(layout, true);
+                }
+            };
         }
 
-        else {
-            ArrayList<Point> startSnapshot = null;
-            if (animationType.equals(AnimationType.SLIDE_TO_END)) {
-                startSnapshot = graph.getNodePositionSnapshot();
-                graph.freezeCanvas();
+        else runLayout = () -> {
+            try {
+                layout.run();
+            } finally {
+                PositionSnapshot endSnapshot = new PositionSnapshot(layout, true);
+                Platform.runLater(() -> finishBuild(endSnapshot, buildNodes));
             }
+        };
+
+        Thread worker = new Thread(() -> {
+            try {
+                runLayout.run();
+                if (cache != null) storeInCache(cache, cacheKey, layout);
+            } finally {
+                layout.shutdown();
+            }
+        }, "force-directed-layout");
+        worker.setDaemon(true);
+        worker.start();
+    }
 
-            int t = 0;
-            while (t++ < MAX_ITERATIONS && applyForces(graph, nodes, t) > EPSILON) {}
-            System.out.println("Forces applied.");
-
-            if (animationType.equals(AnimationType.SLIDE_TO_END)) {
-                System.out.println("Sliding nodes.");
-                ArrayList<Point> endSnapshot = graph.getNodePositionSnapshot();
-                graph.returnNodesToSnapshot(startSnapshot);
-                graph.unfreezeCanvas();
-                slideNodesTo(endSnapshot, nodes);
-            } else stoppedRunning();
+    /**
+     * Move the nodes to the final positions of an unanimated or slide-animated build and finish the build.
+     * @param endSnapshot the final positions of the layout
+     * @param nodes the nodes of the graph when the build started
+     */
+    private void finishBuild(PositionSnapshot endSnapshot, ArrayList<DrawableNode> nodes) {
+        System.out.println("Forces applied.");
+
+        if (animationType.equals(AnimationType.SLIDE_TO_END)) {
+            System.out.println("Sliding nodes.");
+            slideNodesTo(endSnapshot.toPoints(), nodes);
+        } else {
+            endSnapshot.moveNodes(nodes);
+            stoppedRunning();
         }
+    }
 
+    /**
+     * Move the nodes to the positions of a cached layout, if there is one.
+     * @param cache the cache to load the layout from
+     * @param key the key of the layout
+     * @param nodes the nodes of the graph
+     * @return true if the layout was cached and the nodes have been moved
+     */
+    private static boolean placeFromCache(LayoutCache cache, String key, ArrayList<DrawableNode> nodes) {
+        PositionSnapshot snapshot = new PositionSnapshot(nodes.size());
+        if (!cache.load(key, snapshot.x, snapshot.y)) return false;
+
+        System.out.println("Layout loaded from cache.");
+        snapshot.moveNodes(nodes);
+        return true;
+    }
+
+    /**
+     * Store the final positions of a layout in a cache. A layout that cannot be stored is only reported, as the build
+     * has still succeeded.
+     * @param cache the cache to store the layout in
+     * @param key the key of the layout
+     * @param layout the finished layout
+     */
+    private static void storeInCache(LayoutCache cache, String key, IterativeLayout layout) {
+        PositionSnapshot snapshot = new PositionSnapshot(layout, true);
+        try {
+            cache.store(key, snapshot.x, snapshot.y);
+        } catch (IOException e) {
+            System.out.println("Layout could not be cached: " + e.getMessage());
+        }
     }
 
     private void stoppedRunning() {
@@ -153,112 +228,133 @@ public class ForceDirectedBuilder implements GraphBuilder {
         this.endAction = endAction;
     }
 
-    private void buildInitialGraph(Graph graph, ArrayList<DrawableNode> nodes, ArrayList<DrawableEdge> edges) {
-        graph.resizeNodes(true, true);
-
-        // Create the nodes at random positions around the graph
-        for (DrawableNode node : nodes) {
-            node.draw();
-            node.moveWithinBoundsTo(graph.generatePoint());
-        }
-
-        for (DrawableEdge edge : edges) edge.draw();
+    /**
+     * Set the method used to calculate the repulsion between unconnected nodes. Takes effect from the next build.
+     * @param repulsionType the {@link RepulsionType} to use
+     */
+    public void setRepulsionType(RepulsionType repulsionType) {
+        this.repulsionType = repulsionType;
     }
 
-    private ArrayList<Point> calcForces(Graph graph, ArrayList<DrawableNode> nodes, int iteration) {
-        ArrayList<Point> forces = new ArrayList<>();
-
-        for (DrawableNode node : nodes) {
-            Point forceOnNode = new Point(0, 0);
-            for (DrawableNode compareNode : nodes) {
-                if (!node.equals(compareNode)) {
-                    Point force = calcForce(node, compareNode, graph.areConnected(node, compareNode), iteration);
-                    forceOnNode = forceOnNode.add(force);
-                }
-            }
-            if (sidesRepel) forceOnNode = forceOnNode.add(calcSideRepulsion(graph, node));
-            forces.add(forceOnNode);
-        }
-
-        return forces;
+    /**
+     * @return the method used to calculate the repulsion between unconnected nodes
+     */
+    public RepulsionType getRepulsionType() {
+        return repulsionType;
     }
 
-    private Point calcSideRepulsion(Graph graph, DrawableNode node) {
-        double graphHeight = graph.height();
-        double graphWidth = graph.width();
-        Point centre = node.getCentre();
-
-        Point top = new Point(centre.getX(), 0);
-        Point bottom = new Point(centre.getX(), graphHeight);
-        Point left = new Point(0, centre.getY());
-        Point right = new Point(graphWidth, centre.getY());
-
-        Point force = new Point();
-        force = force.add(calcRepulsionBetween(top, centre, SIDE_REPULSION_CONSTANT));
-        force = force.add(calcRepulsionBetween(bottom, centre, SIDE_REPULSION_CONSTANT));
-        force = force.add(calcRepulsionBetween(left, centre, SIDE_REPULSION_CONSTANT));
-        force = force.add(calcRepulsionBetween(right, centre, SIDE_REPULSION_CONSTANT));
-
-        return force;
+    /**
+     * Set the Barnes-Hut accuracy parameter, only used with {@link RepulsionType#BARNES_HUT}. A cell of the quadtree
+     * is approximated as a single node when its size divided by its distance from a node is less than theta. Lower
+     * values are more accurate but slower, 0 compares every node individually.
+     * @param theta the accuracy parameter, must be 0 or greater
+     */
+    public void setTheta(double theta) {
+        if (theta < 0) throw new IllegalArgumentException("Theta cannot be less than 0");
+        this.theta = theta;
     }
 
-    private Point calcRepulsionBetween(Point start, Point end, double repulsionConstant) {
-        double distance = start.distanceTo(end);
-        return start.getVectorTo(end).normalize().multiply(repulsionConstant/(distance*distance));
+    /**
+     * @return the Barnes-Hut accuracy parameter
+     */
+    public double getTheta() {
+        return theta;
     }
 
-    private double applyForces(Graph graph, ArrayList<DrawableNode> nodes, int iteration) {
-        ArrayList<Point> forces = calcForces(graph, nodes, iteration);
-
-        double maxMove = 0;
-        for (int nodeID = 0; nodeID < forces.size(); nodeID++) {
-            double amountMoved = moveNode(nodes.get(nodeID), forces.get(nodeID).multiply(calcCooling(iteration)));
-            if (amountMoved > maxMove) maxMove = amountMoved;
-        }
-
-        return maxMove;
+    /**
+     * Set the number of threads used to calculate the forces on the nodes. Takes effect from the next build.
+     * @param parallelism the number of threads, 1 to calculate every force on the layout thread
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be at least 1");
+        this.parallelism = parallelism;
     }
 
-    private Point createRandomForce(int iteration) {
-        // todo: instead of this it might be an idea to add epsilon to 0s to prevent dividing by 0 instead of generating random values
-        return new Point((random.nextInt(2) * 2 - 1) * NODE_COLLISION_FORCE /iteration, (random.nextDouble(2) * 2 - 1) * NODE_COLLISION_FORCE /iteration);
+    /**
+     * @return the number of threads used to calculate the forces on the nodes
+     */
+    public int getParallelism() {
+        return parallelism;
     }
 
-    private Point calcRepulsion(DrawableNode node1, DrawableNode node2, int iteration) {
-        if (needsSavedFromCollision(node1, node2)) return createRandomForce(iteration);
-        return calcRepulsionBetween(node2.getCentre(), node1.getCentre(), REPULSION_CONSTANT);
+    /**
+     * Set the seed of the random forces used to separate nodes at the same position. Builds that start from the same
+     * node positions with the same seed produce the same result, regardless of their parallelism.
+     * @param seed the seed, or null to use a different random seed for every build
+     */
+    public void setSeed(Long seed) {
+        this.seed = seed;
     }
 
-    private boolean needsSavedFromCollision(DrawableNode node1, DrawableNode node2) {
-        return node1.getCentre().equals(node2.getCentre());
+    /**
+     * Set the cache used to store finished layouts and to place the nodes of graphs that have been laid out before.
+     * Takes effect from the next build.
+     * @param layoutCache the cache, or null to run the layout on every build
+     */
+    public void setLayoutCache(LayoutCache layoutCache) {
+        this.layoutCache = layoutCache;
     }
 
-    private Point calcSpring(DrawableNode node1, DrawableNode node2, int iteration) {
-        if (needsSavedFromCollision(node1, node2)) return createRandomForce(iteration);
-        Point start = node1.getCentre();
-        Point end = node2.getCentre();
+    /**
+     * @return the cache used to store finished layouts, or null if layouts are not cached
+     */
+    public LayoutCache getLayoutCache() {
+        return layoutCache;
+    }
 
-        double distance = end.distanceTo(start) / IDEAL_EDGE_LENGTH;
-        double logDistance = Math.log(distance);
+    /**
+     * Describe the layout algorithm and every parameter that affects the positions it produces, used as part of the
+     * key of a {@link LayoutCache cached layout}. Subclasses that add parameters must include them. Parallelism is
+     * not included as it does not change the result.
+     * @return the description of the layout
+     */
+    protected String getLayoutParameters() {
+        return getClass().getName()
+                + ";idealEdgeLength=" + IDEAL_EDGE_LENGTH
+                + ";repulsionType=" + repulsionType
+                + ";theta=" + theta
+                + ";seed=" + seed;
+    }
 
+    private void buildInitialGraph(Graph graph, ArrayList<DrawableNode> nodes, ArrayList<DrawableEdge> edges) {
+        graph.resizeNodes(true, true);
 
-        return start.getVectorTo(end).normalize().multiply(SPRING_CONSTANT * logDistance);
-    }
+        // Create the nodes at random positions around the graph
+        for (DrawableNode node : nodes) {
+            node.draw();
+            node.moveWithinBoundsTo(graph.generatePoint());
+        }
 
-    private Point calcForce(DrawableNode node1, DrawableNode node2, boolean connected, int iteration) {
-        if (connected) return calcSpring(node1, node2, iteration);
-        return calcRepulsion(node1, node2, iteration);
+        for (DrawableEdge edge : edges) edge.draw();
     }
 
-    private double calcCooling(double iteration) {
-        return Math.pow(COOLING, iteration);
+    /**
+     * @return the seed used for every build, or null if a different random seed is used for every build
+     */
+    public Long getSeed() {
+        return seed;
     }
 
-    private double moveNode(DrawableNode node, Point vector) {
-        Point start = node.getCentre();
-        node.moveWithinBoundsTo(start.add(vector));
-        Point end = node.getCentre();
-        return start.getVectorTo(end).magnitude();
+    /**
+     * Create the layout that is run by each build. Subclasses can override this to build graphs with a different
+     * layout algorithm while keeping the same animations.
+     * @param x the x coordinate of the centre of each node, updated in place by the layout
+     * @param y the y coordinate of the centre of each node, updated in place by the layout
+     * @param radii the radius of each node
+     * @param edges the connections between the nodes
+     * @param width the width of the graph
+     * @param height the height of the graph
+     * @return the created layout
+     */
+    protected IterativeLayout createLayout(double[] x, double[] y, double[] radii, CompressedEdgeList edges,
+                                           double width, double height) {
+        ForceLayout layout = new ForceLayout(x, y, radii, edges, width, height);
+        layout.setIdealEdgeLength(IDEAL_EDGE_LENGTH);
+        layout.setRepulsionType(repulsionType);
+        layout.setTheta(theta);
+        layout.setParallelism(parallelism);
+        if (seed != null) layout.setSeed(seed);
+        return layout;
     }
 
     private void slideNodesTo(ArrayList<Point> endPoints, ArrayList<DrawableNode> nodes) {
@@ -268,28 +364,139 @@ public class ForceDirectedBuilder implements GraphBuilder {
         }).start();
     }
 
-    private class FullFrame implements EventHandler<ActionEvent> {
+    /**
+     * The current positions and sizes of the nodes on a graph and the connections between them, used to create a
+     * layout. The index of each node in the layout is its position in the list of nodes.
+     */
+    private static class LayoutInput {
+        private final double[] x, y, radii;
+        private final CompressedEdgeList edges;
+
+        private LayoutInput(Graph graph, ArrayList<DrawableNode> nodes) {
+            int nodeCount = nodes.size();
+            x = new double[nodeCount];
+            y = new double[nodeCount];
+            radii = new double[nodeCount];
+            for (int i = 0; i < nodeCount; i++) {
+                DrawableNode node = nodes.get(i);
+                Point centre = node.getCentre();
+                x[i] = centre.getX();
+                y[i] = centre.getY();
+                radii[i] = node.getNodeRadius();
+            }
+            edges = CompressedEdgeList.fromTopology(graph.getTopology());
+        }
+    }
+
+    /**
+     * The positions of every node in a layout at a single point in time.
+     */
+    private static class PositionSnapshot {
+        private final double[] x, y;
+        private final boolean last;
+        /**The number of nodes moved so far by {@link #moveNodes(ArrayList, long)}.*/
+        private int movedCount = 0;
+
+        private PositionSnapshot(IterativeLayout layout, boolean last) {
+            x = new double[layout.nodeCount()];
+            y = new double[layout.nodeCount()];
+            layout.copyPositionsInto(x, y);
+            this.last = last;
+        }
+
+        /**
+         * Create a snapshot of every node at the origin, to be filled with positions from elsewhere.
+         * @param nodeCount the number of nodes
+         */
+        private PositionSnapshot(int nodeCount) {
+            x = new double[nodeCount];
+            y = new double[nodeCount];
+            last = true;
+        }
+
+        /**
+         * Move every node to its position in the snapshot. Nodes that have been removed from the graph are skipped.
+         * Must be called on the JavaFX application thread.
+         * @param nodes the nodes to move, in the same order as the layout
+         */
+        private void moveNodes(ArrayList<DrawableNode> nodes) {
+            for (int i = 0; i < nodes.size(); i++) moveNode(nodes.get(i), i);
+        }
+
+        /**
+         * Move the nodes that have not yet been moved to their positions in the snapshot, until every node has been
+         * moved or the deadline has passed. At least one node is moved. Nodes that have been removed from the graph
+         * are skipped. Must be called on the JavaFX application thread.
+         * @param nodes the nodes to move, in the same order as the layout
+         * @param deadline the time to stop moving nodes, from {@link System#nanoTime()}
+         * @return true if every node has now been moved
+         */
+        private boolean moveNodes(ArrayList<DrawableNode> nodes, long deadline) {
+            while (movedCount < nodes.size()) {
+                moveNode(nodes.get(movedCount), movedCount);
+                movedCount++;
+                if (System.nanoTime() >= deadline) break;
+            }
+            return movedCount == nodes.size();
+        }
+
+        private void moveNode(DrawableNode node, int i) {
+            if (node.index() != -1) node.moveTo(x[i], y[i]);
+        }
+
+        /**
+         * @return the position of the centre of every node in the snapshot
+         */
+        private ArrayList<Point> toPoints() {
+            ArrayList<Point> points = new ArrayList<>();
+            for (int i = 0; i < x.length; i++) points.add(new Point(x[i], y[i]));
+            return points;
+        }
+    }
+
+    /**
+     * Moves the nodes on the graph to the most recent positions of a layout that is running on another thread. The
+     * nodes are moved at most once per frame, on the {@link AnimationScheduler#getShared() shared animation scheduler},
+     * and any positions that were published in between frames are skipped. If moving every node would take longer than
+     * the scheduler's frame budget, a snapshot is applied over more than one frame. The layout itself is not held back by the
+     * frame rate, it runs as fast as its thread allows.
+     */
+    private class LayoutRenderer implements AnimationScheduler.Animation {
         private final Graph graph;
         private final ArrayList<DrawableNode> nodes;
-        private final Timeline timeline;
-        private int t = 0;
+        private final AtomicReference<PositionSnapshot> latestSnapshot = new AtomicReference<>();
+        /**The snapshot whose positions are being applied, kept across frames until every node has been moved.*/
+        private PositionSnapshot shownSnapshot = null;
 
-        private FullFrame(Graph graph, ArrayList<DrawableNode> nodes, Timeline timeline) {
+        private LayoutRenderer(Graph graph, ArrayList<DrawableNode> nodes) {
             this.graph = graph;
             this.nodes = nodes;
-            this.timeline = timeline;
         }
 
-        @Override
-        public void handle(ActionEvent actionEvent) {
+        /**
+         * Publish the current positions of the layout to be shown on the next frame. Can be called from any thread.
+         * Positions are only copied if the previous snapshot has already been shown, unless it is the last snapshot.
+         * @param layout the running layout
+         * @param last true if the layout has finished and no more snapshots will be published
+         */
+        private void publish(IterativeLayout layout, boolean last) {
+            if (!last && latestSnapshot.get() != null) return;
+            latestSnapshot.set(new PositionSnapshot(layout, last));
+        }
 
-            if (t++ >= MAX_ITERATIONS || applyForces(graph, nodes, t) <= EPSILON) {
-                System.out.println("Forces applied.");
-                timeline.stop();
-                graph.unfreezeCanvas();
-                stoppedRunning();
-            }
+        @Override
+        public boolean frame(long now, long deadline) {
+            if (shownSnapshot == null) shownSnapshot = latestSnapshot.getAndSet(null);
+            if (shownSnapshot == null) return false;
+            if (!shownSnapshot.moveNodes(nodes, deadline)) return false;
+            boolean last = shownSnapshot.last;
+            shownSnapshot = null;
+            if (!last) return false;
 
+            System.out.println("Forces applied.");
+            graph.unfreezeCanvas();
+            stoppedRunning();
+            return true;
         }
     }
 }
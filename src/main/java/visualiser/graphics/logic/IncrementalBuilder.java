@@ -0,0 +1,241 @@
+package visualiser.graphics.logic;
+
+import visualiser.graphics.Graph;
+import visualiser.graphics.GraphChanges;
+import visualiser.graphics.canvas.Point;
+import visualiser.graphics.objects.DrawableEdge;
+import visualiser.graphics.objects.DrawableNode;
+import visualiser.layout.CompressedEdgeList;
+import visualiser.layout.ForceLayout;
+import visualiser.layout.ForceLayout.RepulsionType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Updates the layout of a graph that has already been built after nodes and edges have been added or removed with
+ * {@link Graph#addNode(visualiser.data.elements.Node) addNode}, {@link Graph#addEdge(visualiser.data.elements.Edge)
+ * addEdge}, {@link Graph#removeNode(DrawableNode) removeNode} or {@link Graph#removeEdge(DrawableEdge) removeEdge}.
+ * <br/>Only the nodes within a number of {@link #setHops(int) hops} of a change are moved. The changed nodes are the
+ * hottest and the temperature falls with each hop, while the rest of the graph is pinned in place. Pinned nodes next
+ * to the moving nodes, either connected to them or close to them on the graph, still pull and push on them, every
+ * other node is ignored. New nodes start next to the nodes they are connected to.
+ * <br/>The layout is small enough to run on the JavaFX application thread, so the nodes are moved before this builder
+ * returns and the graph can be changed again straight away.
+ */
+public class IncrementalBuilder implements GraphBuilder {
+    public static final int
+            DEFAULT_HOPS = 2,
+            DEFAULT_MAX_ITERATIONS = 150;
+    public static final double DEFAULT_COOLING = 0.95d;
+    /** Updates that move at least this many nodes use the Barnes-Hut approximation instead of the exact repulsion,
+     * pinned nodes are cheap with the exact repulsion as the forces on them are never calculated. */
+    private static final int BARNES_HUT_THRESHOLD = 1000;
+
+    private final Random random = new Random();
+    private int hops = DEFAULT_HOPS;
+    private int maxIterations = DEFAULT_MAX_ITERATIONS;
+    private double cooling = DEFAULT_COOLING;
+    private EndAction endAction;
+
+    /**
+     * Lay out the parts of the graph that have changed since the last build. Nothing is moved if the graph has not
+     * changed.
+     * @param graph the {@link Graph graph} that is being built
+     * @param nodes the {@link DrawableNode nodes} that exist on the graph
+     * @param edges the {@link DrawableEdge edges} that exist on the graph
+     */
+    @Override
+    public void build(Graph graph, ArrayList<DrawableNode> nodes, ArrayList<DrawableEdge> edges) {
+        GraphChanges changes = graph.takeChanges();
+        if (!changes.isEmpty()) {
+            long startTime = System.nanoTime();
+            placeAddedNodes(graph, changes.addedNodes());
+            int movedCount = relayout(graph, nodes, changes.changedNodes());
+            System.out.println("Moved " + movedCount + " nodes around " + changes.changedNodes().size()
+                    + " changed nodes in " + (System.nanoTime() - startTime) / 1000000 + "ms.");
+        }
+        if (endAction != null) endAction.handle();
+    }
+
+    /**
+     * Move each added node next to the nodes it is connected to, if any of them were already on the graph. Added
+     * nodes that are not connected to any existing node stay where they were placed.
+     */
+    private void placeAddedNodes(Graph graph, ArrayList<DrawableNode> addedNodes) {
+        Set<DrawableNode> unplaced = Collections.newSetFromMap(new IdentityHashMap<>());
+        unplaced.addAll(addedNodes);
+
+        for (DrawableNode node : addedNodes) {
+            double sumX = 0, sumY = 0;
+            int placedCount = 0;
+            for (DrawableNode neighbour : graph.getNeighbours(node)) {
+                if (unplaced.contains(neighbour)) continue;
+                Point centre = neighbour.getCentre();
+                sumX += centre.getX();
+                sumY += centre.getY();
+                placedCount++;
+            }
+            if (placedCount == 0) continue;
+
+            // Start a short distance away in a random direction so that the node does not cover its neighbour
+            double angle = random.nextDouble(2 * Math.PI);
+            double distance = ForceDirectedBuilder.IDEAL_EDGE_LENGTH / 2;
+            node.moveWithinBoundsTo(sumX / placedCount + Math.cos(angle) * distance,
+                    sumY / placedCount + Math.sin(angle) * distance);
+            unplaced.remove(node);
+        }
+    }
+
+    /**
+     * Run a layout of the nodes around the changed nodes and move them to their new positions.
+     * @return the number of nodes that were free to move
+     */
+    private int relayout(Graph graph, ArrayList<DrawableNode> nodes, ArrayList<DrawableNode> changedNodes) {
+        // Find every node within the hop limit of a change. Nodes one hop further are included but pinned
+        ArrayList<DrawableNode> layoutNodes = new ArrayList<>(changedNodes);
+        HashMap<Integer, Integer> distances = new HashMap<>();
+        for (DrawableNode node : changedNodes) distances.put(node.index(), 0);
+        for (int i = 0; i < layoutNodes.size(); i++) {
+            DrawableNode node = layoutNodes.get(i);
+            int distance = distances.get(node.index());
+            if (distance > hops) continue;
+            for (DrawableNode neighbour : graph.getNeighbours(node))
+                if (distances.putIfAbsent(neighbour.index(), distance + 1) == null) layoutNodes.add(neighbour);
+        }
+
+        // Pin every other node near a moving node so that the moving nodes are not pushed on top of the rest of the
+        // graph. Nearby nodes are found with a grid of cells, any node in the same cell as a moving node or in one of
+        // the eight cells around it is included
+        double cellSize = ForceDirectedBuilder.IDEAL_EDGE_LENGTH;
+        HashSet<Long> nearbyCells = new HashSet<>();
+        int freeCount = 0;
+        for (DrawableNode node : layoutNodes) {
+            if (distances.get(node.index()) > hops) continue;
+            Point centre = node.getCentre();
+            int cellX = (int) Math.floor(centre.getX() / cellSize);
+            int cellY = (int) Math.floor(centre.getY() / cellSize);
+            for (int dx = -1; dx <= 1; dx++)
+                for (int dy = -1; dy <= 1; dy++) nearbyCells.add(cellKey(cellX + dx, cellY + dy));
+            freeCount++;
+        }
+        for (DrawableNode node : nodes) {
+            if (distances.containsKey(node.index())) continue;
+            Point centre = node.getCentre();
+            long cell = cellKey((int) Math.floor(centre.getX() / cellSize), (int) Math.floor(centre.getY() / cellSize));
+            if (!nearbyCells.contains(cell)) continue;
+            distances.put(node.index(), hops + 1);
+            layoutNodes.add(node);
+        }
+
+        // Create the layout, the index of each node in the layout is its position in the list of layout nodes
+        int nodeCount = layoutNodes.size();
+        HashMap<Integer, Integer> layoutIndices = new HashMap<>();
+        double[] x = new double[nodeCount], y = new double[nodeCount], radii = new double[nodeCount];
+        double[] temperatures = new double[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            DrawableNode node = layoutNodes.get(i);
+            Point centre = node.getCentre();
+            x[i] = centre.getX();
+            y[i] = centre.getY();
+            radii[i] = node.getNodeRadius();
+            int distance = distances.get(node.index());
+            temperatures[i] = distance > hops ? 0 : 1 - (double) distance / (hops + 1);
+            layoutIndices.put(node.index(), i);
+        }
+
+        // Only the edges of moving nodes affect the layout, the pinned nodes do not move whatever their edges are
+        int[] starts = new int[16], ends = new int[16];
+        int pairCount = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            if (temperatures[i] == 0) continue;
+            for (DrawableNode neighbour : graph.getNeighbours(layoutNodes.get(i))) {
+                Integer neighbourIndex = layoutIndices.get(neighbour.index());
+                if (neighbourIndex == null) continue;
+                if (pairCount == starts.length) {
+                    starts = Arrays.copyOf(starts, pairCount * 2);
+                    ends = Arrays.copyOf(ends, pairCount * 2);
+                }
+                starts[pairCount] = i;
+                ends[pairCount++] = neighbourIndex;
+            }
+        }
+
+        ForceLayout layout = new ForceLayout(x, y, radii, CompressedEdgeList.fromPairs(nodeCount,
+                Arrays.copyOf(starts, pairCount), Arrays.copyOf(ends, pairCount)), graph.width(), graph.height());
+        layout.setIdealEdgeLength(ForceDirectedBuilder.IDEAL_EDGE_LENGTH);
+        layout.setCooling(cooling);
+        layout.setMaxIterations(maxIterations);
+        layout.setNodeTemperatures(temperatures);
+        if (freeCount >= BARNES_HUT_THRESHOLD) layout.setRepulsionType(RepulsionType.BARNES_HUT);
+        layout.run();
+
+        for (int i = 0; i < nodeCount; i++) if (temperatures[i] > 0) layoutNodes.get(i).moveTo(x[i], y[i]);
+        return freeCount;
+    }
+
+    private static long cellKey(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Set the event handler for when each build finishes.
+     * @param endAction the {@link EndAction} to be stored
+     */
+    public void setEndAction(EndAction endAction) {
+        this.endAction = endAction;
+    }
+
+    /**
+     * Set how far from a change the nodes are moved. 0 only moves the changed nodes themselves.
+     * @param hops the greatest number of edges between a changed node and a node that is moved, must be 0 or greater
+     */
+    public void setHops(int hops) {
+        if (hops < 0) throw new IllegalArgumentException("Hops cannot be less than 0");
+        this.hops = hops;
+    }
+
+    /**
+     * @return the greatest number of edges between a changed node and a node that is moved
+     */
+    public int getHops() {
+        return hops;
+    }
+
+    /**
+     * @param maxIterations the maximum number of iterations of each update, must be at least 1
+     */
+    public void setMaxIterations(int maxIterations) {
+        if (maxIterations < 1) throw new IllegalArgumentException("Max iterations must be at least 1");
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * @return the maximum number of iterations of each update
+     */
+    public int getMaxIterations() {
+        return maxIterations;
+    }
+
+    /**
+     * @param cooling the multiplier applied to every force once per iteration, lower values settle each update in
+     *                fewer iterations, must be greater than 0 and no greater than 1
+     */
+    public void setCooling(double cooling) {
+        if (cooling <= 0 || cooling > 1) throw new IllegalArgumentException("Cooling must be greater than 0 and no greater than 1");
+        this.cooling = cooling;
+    }
+
+    /**
+     * @return the multiplier applied to every force once per iteration
+     */
+    public double getCooling() {
+        return cooling;
+    }
+}
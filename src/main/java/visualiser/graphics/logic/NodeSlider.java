@@ -2,17 +2,21 @@ package visualiser.graphics.logic;
 
 import visualiser.graphics.canvas.Point;
 import visualiser.graphics.objects.DrawableNode;
-import javafx.animation.KeyFrame;
-import javafx.animation.Timeline;
-import javafx.event.ActionEvent;
-import javafx.event.EventHandler;
-import javafx.util.Duration;
 
 import java.util.ArrayList;
 
+/**
+ * Slides nodes in straight lines from their current positions to their end points at a constant speed. The slide
+ * runs on the {@link AnimationScheduler#getShared() shared animation scheduler} and the position of each node is
+ * worked out from the time that has passed since the slide started, so the slide takes the given duration whatever
+ * the frame rate. If moving every node would take longer than the scheduler's frame budget, the nodes are moved over
+ * more than one frame.
+ * <br/>The nodes to slide are copied when the slider is created, so nodes added to the graph during the slide are not
+ * moved and nodes removed from the graph during the slide are skipped.
+ */
 public class NodeSlider {
-    private final Timeline timeline;
-    private final int slideDuration;
+    private final SlideAnimation slideAnimation;
+    private final long slideDuration;
     private final EndAction endAction;
     private final boolean withinBounds;
 
@@ -28,52 +32,86 @@ public class NodeSlider {
         this(nodes, endPoints, durationMillis, false, endAction);
     }
     public NodeSlider(ArrayList<DrawableNode> nodes, ArrayList<Point> endPoints, int durationMillis, boolean withinBounds, EndAction endAction) {
+        if (durationMillis < 0) throw new IllegalArgumentException("Slide duration cannot be less than 0");
         this.endAction = endAction;
         this.withinBounds = withinBounds;
-        slideDuration = durationMillis;
-        timeline = new Timeline();
-        timeline.getKeyFrames().add(new KeyFrame(Duration.millis(1), new SlideFrame(nodes, endPoints)));
-        timeline.setCycleCount(durationMillis);
+        slideDuration = durationMillis * 1_000_000L;
+        slideAnimation = new SlideAnimation(nodes, endPoints);
     }
 
+    /**
+     * Start the slide from the next frame, or carry on from where it was paused. Once the slide has finished it can
+     * be started again from the nodes' positions at that time.
+     */
     public void start() {
-        timeline.play();
+        AnimationScheduler.getShared().schedule(slideAnimation);
     }
 
+    /**
+     * Pause the slide, leaving the nodes where they are. The time the slide is paused for is not counted towards
+     * its duration.
+     */
     public void pause() {
-        timeline.pause();
+        AnimationScheduler.getShared().cancel(slideAnimation);
+        slideAnimation.startTime = -1;
     }
 
-    private class SlideFrame implements EventHandler<ActionEvent> {
+    private class SlideAnimation implements AnimationScheduler.Animation {
         private final ArrayList<DrawableNode> nodes;
         private final ArrayList<Point> endPoints;
-        private int frameNumber = 0;
+        /**The positions of the nodes when the slide started, null until the first frame of the slide.*/
+        private ArrayList<Point> startPoints = null;
+        /**The time of the frame that the slide started or was resumed on, minus the time already slid, or -1 if the
+         * slide is not running.*/
+        private long startTime = -1;
+        private long elapsedTime = 0;
+        /**The node to move next, nodes are moved in order and a frame that runs out of time stops part way.*/
+        private int nextNode = 0;
+        /**The number of nodes that have been moved to their end points since the slide reached its end.*/
+        private int finishedCount = 0;
 
-        private SlideFrame(ArrayList<DrawableNode> nodes, ArrayList<Point> endPoints) {
-            this.nodes = nodes;
-            this.endPoints = endPoints;
+        private SlideAnimation(ArrayList<DrawableNode> nodes, ArrayList<Point> endPoints) {
+            this.nodes = new ArrayList<>(nodes);
+            this.endPoints = new ArrayList<>(endPoints);
         }
 
         @Override
-        public void handle(ActionEvent actionEvent) {
-            double remainingFrames = slideDuration - frameNumber;
-            double distanceMultiplier = 1d / remainingFrames;
-            for (int i = 0; i < nodes.size(); i++) {
-                DrawableNode node = nodes.get(i);
-                Point nodeCentre = node.getCentre();
-                Point endPoint = endPoints.get(i);
-                double distance = nodeCentre.distanceTo(endPoint);
-                double travelDistance = distance * distanceMultiplier;
-                Point normalisedVector = nodeCentre.getVectorTo(endPoint).normalize();
-                Point movementVector = normalisedVector.multiply(travelDistance);
-                Point movePoint = nodeCentre.add(movementVector);
-                if (!withinBounds) node.moveTo(movePoint);
-                else node.moveWithinBoundsTo(movePoint);
+        public boolean frame(long now, long deadline) {
+            if (startPoints == null) {
+                startPoints = new ArrayList<>();
+                for (DrawableNode node : nodes) startPoints.add(node.getCentre());
             }
-            if (++frameNumber == slideDuration) {
-                frameNumber = 0;
-                if (endAction != null) endAction.handle();
+            if (startTime == -1) startTime = now - elapsedTime;
+            elapsedTime = now - startTime;
+
+            // Move each node once at most, stopping early at the deadline. Nodes that were not moved are moved first
+            // on the next frame, to the position they should have by then.
+            double progress = slideDuration == 0 ? 1 : Math.min(1, (double) elapsedTime / slideDuration);
+            int nodeCount = nodes.size();
+            for (int moved = 0; moved < nodeCount; moved++) {
+                moveNode(nextNode, progress);
+                nextNode = nextNode + 1 == nodeCount ? 0 : nextNode + 1;
+                if (progress == 1) finishedCount++;
+                if (System.nanoTime() >= deadline) break;
             }
+
+            if (finishedCount < nodeCount) return false;
+            startPoints = null;
+            startTime = -1;
+            elapsedTime = 0;
+            nextNode = 0;
+            finishedCount = 0;
+            if (endAction != null) endAction.handle();
+            return true;
+        }
+
+        private void moveNode(int i, double progress) {
+            DrawableNode node = nodes.get(i);
+            if (node.index() == -1) return;
+            Point startPoint = startPoints.get(i);
+            Point movePoint = startPoint.add(startPoint.getVectorTo(endPoints.get(i)).multiply(progress));
+            if (!withinBounds) node.moveTo(movePoint);
+            else node.moveWithinBoundsTo(movePoint);
         }
     }
 }
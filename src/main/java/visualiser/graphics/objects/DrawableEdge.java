@@ -5,6 +5,7 @@ import visualiser.graphics.Graph;
 import visualiser.graphics.objects.exceptions.InvalidEdgeException;
 import visualiser.graphics.objects.exceptions.UndefinedNodeException;
 import javafx.scene.Parent;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Line;
 import javafx.scene.shape.Polygon;
@@ -34,6 +35,8 @@ public class DrawableEdge extends Parent {
     protected final EdgeLine edgeLine;
     protected Arrow arrow;
     private Color lineColour = Color.BLACK, arrowColour = Color.BLACK;
+    private boolean arrowShown = true;
+    private int index = -1;
 
     public DrawableEdge(DrawableNode startNode, DrawableNode endNode, boolean directed) throws UndefinedNodeException, InvalidEdgeException {
         this(startNode, endNode, directed, defaultHoverAction);
@@ -101,6 +104,7 @@ public class DrawableEdge extends Parent {
     public void setLineColour(Color colour) {
         edgeLine.setStroke(colour);
         lineColour = colour;
+        graph.requestRedraw();
     }
 
     public Color getLineColour() {
@@ -110,12 +114,26 @@ public class DrawableEdge extends Parent {
     public void setArrowColour(Color colour) {
         if (arrow != null) arrow.setFill(colour);
         arrowColour = colour;
+        graph.requestRedraw();
     }
 
     public Color getArrowColour() {
         return arrowColour;
     }
 
+    /**
+     * Show or hide the arrow of a directed edge. Used when the graph is zoomed out too far for the arrow to be seen.
+     * @param arrowShown true to show the arrow, false to hide it
+     */
+    public void setArrowShown(boolean arrowShown) {
+        this.arrowShown = arrowShown;
+        if (arrow != null) arrow.setVisible(arrowShown);
+    }
+
+    public boolean isArrowShown() {
+        return arrowShown;
+    }
+
     /**
      * Reconnect the edge to its nodes. If either node changes in size or position this method should be called.
      */
@@ -125,12 +143,24 @@ public class DrawableEdge extends Parent {
         connectHoverMask();
     }
 
-    private void connectHoverMask() {
-        hoverMask.getPoints().clear();
+    /**
+     * Unlink this edge from the edge going in the opposite direction between the same nodes, if there is one. The
+     * opposite edge is reconnected so that it is drawn across the full distance between the nodes again. This should
+     * be called when the edge is removed from its graph.
+     */
+    public void disconnectOpposite() {
+        if (oppositeEdge == null) return;
+        if (oppositeEdge.oppositeEdge == this) {
+            oppositeEdge.oppositeEdge = null;
+            oppositeEdge.reconnect();
+        }
+        oppositeEdge = null;
+    }
 
+    private void connectHoverMask() {
         Point u = getNormalisedLineVector();
 
-        Point lineEnd = endNode.getCentre().sub(u.multiply(endNode.getNodeRadius()));
+        Point lineEnd = getEndPoint();
         Point lineStart = getStartPoint();
         Point vectorHalfWidth = new Point(u.getY(), -u.getX()).multiply(HOVER_MASK_WIDTH/2);
         Point startTop = lineStart.sub(vectorHalfWidth);
@@ -138,22 +168,21 @@ public class DrawableEdge extends Parent {
         Point endTop = lineEnd.sub(vectorHalfWidth);
         Point endBottom = lineEnd.add(vectorHalfWidth);
 
-        addHoverMaskPoint(startTop);
-        addHoverMaskPoint(startBottom);
-        addHoverMaskPoint(endBottom);
-        addHoverMaskPoint(endTop);
-    }
-
-    private void addHoverMaskPoint(Point point) {
-        hoverMask.getPoints().add(point.getX());
-        hoverMask.getPoints().add(point.getY());
+        // Set every point at once so that the mask only changes once
+        hoverMask.getPoints().setAll(startTop.getX(), startTop.getY(), startBottom.getX(), startBottom.getY(),
+                endBottom.getX(), endBottom.getY(), endTop.getX(), endTop.getY());
     }
 
     public void setHoverAction(HoverAction<DrawableEdge> hoverAction) {
         this.hoverAction = hoverAction;
     }
 
-    protected void handleHover(boolean isHovering) {
+    /**
+     * Run the hover action of the edge. Called by the edge's hover mask when the pointer enters or leaves it, or by a
+     * {@link visualiser.graphics.canvas.ImmediateCanvas canvas} that finds the hovered edge itself.
+     * @param isHovering true if the pointer has entered the edge, false if it has left
+     */
+    public void handleHover(boolean isHovering) {
         if (hoverAction != null) hoverAction.handle(this, isHovering);
     }
 
@@ -256,6 +285,30 @@ public class DrawableEdge extends Parent {
         return endNode;
     }
 
+    /**
+     * @return true if the edge is directed, false otherwise
+     */
+    public boolean directed() {
+        return directed;
+    }
+
+    /**
+     * Get the dense index of the edge within its graph, this is the position of the edge in the graph's edge list.
+     * @return the index of the edge, or -1 if the edge has not been added to the graph
+     */
+    public int index() {
+        return index;
+    }
+
+    /**
+     * Set the dense index of the edge within its graph. This should only be called by the {@link Graph graph} when
+     * the edge is added to it, moved within its edge list or removed from it.
+     * @param index the position of the edge in the graph's edge list, or -1 if the edge has been removed
+     */
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
     public Point getStartPoint() {
         Point lineStart;
         if (oppositeEdge == null) lineStart = startNode.getCentre().add(getNormalisedLineVector().multiply(startNode.getNodeRadius()));
@@ -263,6 +316,86 @@ public class DrawableEdge extends Parent {
         return lineStart;
     }
 
+    /**
+     * @return the point where the edge meets the border of its end node, for directed edges this is the tip of the
+     * arrow
+     */
+    public Point getEndPoint() {
+        return endNode.getCentre().sub(getNormalisedLineVector().multiply(endNode.getNodeRadius()));
+    }
+
+    /**
+     * @return the point where the line of the edge ends, which is the base of the arrow for directed edges
+     */
+    private Point getLineEndPoint() {
+        Point end = getEndPoint();
+        if (directed) end = end.sub(getNormalisedLineVector().multiply(Arrow.HEIGHT));
+        return end;
+    }
+
+    /**
+     * @return the tip, left and right corners of the arrow, in the order x0, y0, x1, y1, x2, y2
+     */
+    private double[] getArrowPoints() {
+        Point u = getNormalisedLineVector();
+        Point tip = getEndPoint();
+        Point base = tip.sub(u.multiply(Arrow.HEIGHT));
+        Point vBase = new Point(u.getY(), -u.getX()).multiply(Arrow.WIDTH/2);
+        Point left = base.sub(vBase);
+        Point right = base.add(vBase);
+        return new double[] {tip.getX(), tip.getY(), left.getX(), left.getY(), right.getX(), right.getY()};
+    }
+
+    /**
+     * Check if a point is within the edge's hover mask, the area within half the {@link #HOVER_MASK_WIDTH} of the
+     * edge between its start point and {@link #getEndPoint() end point}.
+     * @return true if the point is within the hover mask
+     */
+    public boolean hoverMaskContains(double x, double y) {
+        Point start = getStartPoint();
+        Point end = getEndPoint();
+        double dx = end.getX() - start.getX(), dy = end.getY() - start.getY();
+        double lengthSquared = dx*dx + dy*dy;
+        if (lengthSquared == 0) return false;
+
+        // Find how far along the edge the point lies, it must fall between the ends of the edge
+        double along = ((x - start.getX())*dx + (y - start.getY())*dy) / lengthSquared;
+        if (along < 0 || along > 1) return false;
+        double distanceX = start.getX() + along*dx - x;
+        double distanceY = start.getY() + along*dy - y;
+        return distanceX*distanceX + distanceY*distanceY <= (HOVER_MASK_WIDTH/2) * (HOVER_MASK_WIDTH/2);
+    }
+
+    /**
+     * Paint the edge and its arrow onto a canvas, in the same way they are shown in the scene graph. The edge is
+     * painted from the current positions of its nodes, so it does not need to be reconnected first.
+     * @param gc the graphics context to paint with
+     */
+    public void render(GraphicsContext gc) {
+        renderLine(gc, EdgeLine.WIDTH);
+
+        if (directed && arrow != null) {
+            double[] points = getArrowPoints();
+            gc.setFill(arrowColour);
+            gc.fillPolygon(new double[] {points[0], points[2], points[4]}, new double[] {points[1], points[3], points[5]}, 3);
+        }
+    }
+
+    /**
+     * Paint only the line of the edge onto a canvas, without its arrow. The line is painted from the current
+     * positions of its nodes, so the edge does not need to be reconnected first.
+     * @param gc the graphics context to paint with
+     * @param width the width of the line
+     */
+    public void renderLine(GraphicsContext gc, double width) {
+        Point start = getStartPoint();
+        Point end = getLineEndPoint();
+        gc.setStroke(lineColour);
+        gc.setLineWidth(width);
+        gc.setLineCap(StrokeLineCap.BUTT);
+        gc.strokeLine(start.getX(), start.getY(), end.getX(), end.getY());
+    }
+
     protected Point getNormalisedLineVector() {
         return startNode.getCentre().getVectorTo(endNode.getCentre()).normalize();
     }
@@ -287,6 +420,7 @@ public class DrawableEdge extends Parent {
 
     private void adjustCopyValues(DrawableEdge copy) {
         copy.setColours(lineColour, arrowColour);
+        copy.setArrowShown(arrowShown);
     }
 
 
@@ -314,25 +448,8 @@ public class DrawableEdge extends Parent {
          * be drawn on the endNode side.
          */
         private void connectToNode() {
-            this.getPoints().clear();
-
-            Point u = getNormalisedLineVector();
-
-            Point endPoint = endNode.getCentre().sub(u.multiply(endNode.getNodeRadius()));
-            Point base = endPoint.sub(u.multiply(HEIGHT));
-            Point uBase = new Point(u.getY(), -u.getX());
-            Point vBase = uBase.multiply(WIDTH/2);
-            Point left = base.sub(vBase);
-            Point right = base.add(vBase);
-
-
-            this.getPoints().add(endPoint.getX());
-            this.getPoints().add(endPoint.getY());
-
-            this.getPoints().add(left.getX());
-            this.getPoints().add(left.getY());
-            this.getPoints().add(right.getX());
-            this.getPoints().add(right.getY());
+            double[] points = getArrowPoints();
+            this.getPoints().setAll(points[0], points[1], points[2], points[3], points[4], points[5]);
         }
 
     }
@@ -360,18 +477,7 @@ public class DrawableEdge extends Parent {
          * Connect the edge to its nodes.
          */
         private void connectToNodes() {
-            Point endCentre = endNode.getCentre();
-
-            Point u = getNormalisedLineVector();
-
-            Point start = getStartPoint();
-
-            double endRadius = endNode.getNodeRadius();
-            Point end = endCentre.sub(u.multiply(endRadius));
-
-            if (directed) end = end.sub(u.multiply(Arrow.HEIGHT));
-
-            setPosition(start, end);
+            setPosition(getStartPoint(), getLineEndPoint());
         }
 
         /**
@@ -455,4 +561,15 @@ public class DrawableEdge extends Parent {
 
         return sameEdgeType && (directedSameNodes || nonDirectedSameNodes);
     }
+
+    /**
+     * @return a hash code consistent with {@link #equals(Object)}, an undirected edge has the same hash code whichever
+     * way round its nodes are
+     */
+    @Override
+    public int hashCode() {
+        int startHash = startNode.hashCode(), endHash = endNode.hashCode();
+        if (directed) return 31 * startHash + endHash;
+        return 31 * Math.min(startHash, endHash) + Math.max(startHash, endHash) + 1;
+    }
 }
\ No newline at end of file
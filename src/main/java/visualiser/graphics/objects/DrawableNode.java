@@ -3,11 +3,14 @@ package visualiser.graphics.objects;
 import visualiser.data.elements.Node;
 import visualiser.graphics.canvas.Point;
 import visualiser.graphics.Graph;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Circle;
 import javafx.scene.text.Font;
 import javafx.scene.text.Text;
+import javafx.scene.text.TextAlignment;
 
 import java.util.ArrayList;
 
@@ -20,10 +23,12 @@ public class DrawableNode extends StackPane {
     protected final Graph graph;
     private final int id;
     private final String name;
+    private int index = -1;
     private double xPos = 0, yPos = 0;
     private Color borderColour = Color.BLACK;
     private Color backgroundColour = Color.WHITE;
     private Color textColour = Color.BLACK;
+    private boolean shownAsDot = false;
     protected final Circle border;
     protected final Text textID;
     protected final Circle hoverMask;
@@ -81,7 +86,12 @@ public class DrawableNode extends StackPane {
         this.hoverAction = hoverAction;
     }
 
-    private void handleHover(boolean isHovering) {
+    /**
+     * Run the hover action of the node. Called by the node's hover mask when the pointer enters or leaves it, or by a
+     * {@link visualiser.graphics.canvas.ImmediateCanvas canvas} that finds the hovered node itself.
+     * @param isHovering true if the pointer has entered the node, false if it has left
+     */
+    public void handleHover(boolean isHovering) {
         if (hoverAction != null) hoverAction.handle(this, isHovering);
     }
 
@@ -91,7 +101,9 @@ public class DrawableNode extends StackPane {
 
     public void setBorderColour(Color colour) {
         border.setStroke(colour);
+        if (shownAsDot) border.setFill(colour);
         borderColour = colour;
+        graph.requestRedraw();
     }
 
     public Color getBorderColour() {
@@ -99,8 +111,9 @@ public class DrawableNode extends StackPane {
     }
 
     public void setBackgroundColour(Color colour) {
-        border.setFill(colour);
+        if (!shownAsDot) border.setFill(colour);
         backgroundColour = colour;
+        graph.requestRedraw();
     }
 
     public Color getBackgroundColour() {
@@ -110,6 +123,7 @@ public class DrawableNode extends StackPane {
     public void setTextColour(Color colour) {
         textID.setStroke(colour);
         textColour = colour;
+        graph.requestRedraw();
     }
 
     public Color getTextColour() {
@@ -122,6 +136,21 @@ public class DrawableNode extends StackPane {
         if (textColour != null) setTextColour(textColour);
     }
 
+    /**
+     * Show the node as a dot, filled with its border colour and without its text. Used when the graph is zoomed out
+     * too far for the text to be read.
+     * @param shownAsDot true to show the node as a dot, false to show the full node
+     */
+    public void setShownAsDot(boolean shownAsDot) {
+        this.shownAsDot = shownAsDot;
+        border.setFill(shownAsDot ? borderColour : backgroundColour);
+        textID.setVisible(!shownAsDot);
+    }
+
+    public boolean isShownAsDot() {
+        return shownAsDot;
+    }
+
     public void moveWithinBoundsTo(Point point) {
         moveWithinBoundsTo(point.getX(), point.getY());
     }
@@ -198,6 +227,24 @@ public class DrawableNode extends StackPane {
         return name;
     }
 
+    /**
+     * Get the dense index of the node within its graph, this is the position of the node in the graph's node list.
+     * Copies of a node share the index of the original node.
+     * @return the index of the node, or -1 if the node has not been added to the graph
+     */
+    public int index() {
+        return index;
+    }
+
+    /**
+     * Set the dense index of the node within its graph. This should only be called by the {@link Graph graph} when
+     * the node is added to it, moved within its node list or removed from it.
+     * @param index the position of the node in the graph's node list, or -1 if the node has been removed
+     */
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
     /**
      * Get the radius of the circle used to display the border. This radius DOES NOT include the border width.
      * @see #getNodeRadius()
@@ -378,6 +425,42 @@ public class DrawableNode extends StackPane {
         return true;
     }
 
+    /**
+     * Paint the node onto a canvas, in the same way it is shown in the scene graph.
+     * @param gc the graphics context to paint with
+     */
+    public void render(GraphicsContext gc) {
+        Point centre = getCentre();
+        double radius = getCircleRadius();
+        gc.setFill(backgroundColour);
+        gc.fillOval(centre.getX() - radius, centre.getY() - radius, radius * 2, radius * 2);
+        gc.setStroke(borderColour);
+        gc.setLineWidth(BORDER_WIDTH);
+        gc.strokeOval(centre.getX() - radius, centre.getY() - radius, radius * 2, radius * 2);
+
+        // The text keeps the default black fill of a Text object and is outlined with the text colour
+        gc.setFont(textID.getFont());
+        gc.setTextAlign(TextAlignment.CENTER);
+        gc.setTextBaseline(VPos.CENTER);
+        gc.setFill(Color.BLACK);
+        gc.fillText(name, centre.getX(), centre.getY());
+        gc.setStroke(textColour);
+        gc.setLineWidth(1);
+        gc.strokeText(name, centre.getX(), centre.getY());
+    }
+
+    /**
+     * Paint the node onto a canvas as a dot, filled with its border colour and without its text.
+     * @param gc the graphics context to paint with
+     * @see #setShownAsDot(boolean)
+     */
+    public void renderDot(GraphicsContext gc) {
+        Point centre = getCentre();
+        double radius = getNodeRadius();
+        gc.setFill(borderColour);
+        gc.fillOval(centre.getX() - radius, centre.getY() - radius, radius * 2, radius * 2);
+    }
+
     public DrawableNode createCopy() {
         DrawableNode copy = new DrawableNode(graph, id, name, hoverAction);
         adjustCopyValues(copy);
@@ -386,9 +469,11 @@ public class DrawableNode extends StackPane {
 
     private void adjustCopyValues(DrawableNode copy) {
         // todo: add any other options here
+        copy.index = index;
         copy.setOrigin(getOrigin());
         copy.setNodeRadius(getNodeRadius(), false);
         copy.setColours(borderColour, backgroundColour, textColour);
+        copy.setShownAsDot(shownAsDot);
     }
 
     protected WeightedDrawableNode createWeightedCopy(String value) {
@@ -416,4 +501,12 @@ public class DrawableNode extends StackPane {
         boolean sameGraph = graph.equals(node.graph);
         return sameID && sameGraph;
     }
+
+    /**
+     * @return a hash code consistent with {@link #equals(Object)}, made from the node's ID and graph
+     */
+    @Override
+    public int hashCode() {
+        return 31 * graph.hashCode() + Integer.hashCode(id);
+    }
 }
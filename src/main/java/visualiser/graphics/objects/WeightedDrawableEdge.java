@@ -3,11 +3,14 @@ package visualiser.graphics.objects;
 import visualiser.graphics.objects.exceptions.InvalidEdgeException;
 import visualiser.graphics.objects.exceptions.UndefinedNodeException;
 import javafx.beans.value.ChangeListener;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Font;
 import javafx.scene.text.Text;
+import javafx.scene.text.TextAlignment;
 
 import java.util.ArrayList;
 
@@ -31,8 +34,6 @@ public class WeightedDrawableEdge extends DrawableEdge {
         this.weight = new Weight(this);
 
         this.weight.setListener((ignored1, ignored2, isHovered) -> weight.setVisible(isHovered));
-
-        hoverMask.hoverProperty().addListener((ignored1, ignored2, isHovered) -> weight.setVisible(isHovered));
     }
 
     @Override
@@ -41,6 +42,16 @@ public class WeightedDrawableEdge extends DrawableEdge {
         throw new InvalidEdgeException(startNode, endNode); // todo: more clarity
     }
 
+    /**
+     * Run the hover action of the edge and show its weight while the pointer is over it.
+     * @param isHovering true if the pointer has entered the edge, false if it has left
+     */
+    @Override
+    public void handleHover(boolean isHovering) {
+        super.handleHover(isHovering);
+        weight.setVisible(isHovering);
+    }
+
     public String value() {
         return value;
     }
@@ -51,16 +62,18 @@ public class WeightedDrawableEdge extends DrawableEdge {
 
     public class Weight extends StackPane {
         private final WeightedDrawableEdge edge;
+        private final Text text;
+        private final Rectangle textBorder;
         private Weight(WeightedDrawableEdge edge) {
             this.edge = edge;
 
             setVisible(false);
 
             // Set up the text box for storing the value
-            Text text = new Text(value);
+            text = new Text(value);
             text.setFont(new Font(WEIGHTED_CONTENT_FONT_SIZE));
 
-            Rectangle textBorder = new Rectangle(
+            textBorder = new Rectangle(
                     0 + WEIGHTED_CONTENT_BORDER_WIDTH/2,
                     0 + WEIGHTED_CONTENT_BORDER_WIDTH/2,
                     text.getLayoutBounds().getWidth() + WEIGHTED_CONTENT_PADDING*2 + WEIGHTED_CONTENT_BORDER_WIDTH,
@@ -77,6 +90,28 @@ public class WeightedDrawableEdge extends DrawableEdge {
             hoverProperty().addListener(hoverListener);
         }
 
+        /**
+         * Paint the weight onto a canvas at its position on the graph, if it is visible.
+         * @param gc the graphics context to paint with
+         */
+        public void render(GraphicsContext gc) {
+            if (!isVisible()) return;
+            // The box is placed half a border width inside the weight, as it is in the stack pane
+            double left = getLayoutX() + WEIGHTED_CONTENT_BORDER_WIDTH/2, top = getLayoutY() + WEIGHTED_CONTENT_BORDER_WIDTH/2;
+            double width = textBorder.getWidth(), height = textBorder.getHeight();
+            gc.setFill(Color.WHITE);
+            gc.fillRect(left, top, width, height);
+            gc.setStroke(Color.BLACK);
+            gc.setLineWidth(WEIGHTED_CONTENT_BORDER_WIDTH);
+            gc.strokeRect(left, top, width, height);
+
+            gc.setFont(text.getFont());
+            gc.setTextAlign(TextAlignment.CENTER);
+            gc.setTextBaseline(VPos.CENTER);
+            gc.setFill(Color.BLACK);
+            gc.fillText(value, left + width/2, top + height/2);
+        }
+
         public String value() {
             return value;
         }
@@ -93,5 +128,10 @@ public class WeightedDrawableEdge extends DrawableEdge {
             if (o instanceof Weight edgeWeight) return edge.equals(edgeWeight.edge);
             return false;
         }
+
+        @Override
+        public int hashCode() {
+            return edge.hashCode();
+        }
     }
 }
@@ -4,11 +4,14 @@ import visualiser.data.elements.WeightedNode;
 import visualiser.graphics.canvas.Point;
 import visualiser.graphics.Graph;
 import javafx.beans.value.ChangeListener;
+import javafx.geometry.VPos;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.layout.StackPane;
 import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
 import javafx.scene.text.Font;
 import javafx.scene.text.Text;
+import javafx.scene.text.TextAlignment;
 
 public class WeightedDrawableNode extends DrawableNode {
     public static final double
@@ -37,8 +40,6 @@ public class WeightedDrawableNode extends DrawableNode {
 
         weight = new Weight(this);
         weight.setListener((ignored1, ignored2, isHovered) -> weight.setVisible(isHovered));
-
-        hoverMask.hoverProperty().addListener((ignored1, ignored2, isHovered) -> weight.setVisible(isHovered));
     }
 
     @Override
@@ -53,6 +54,16 @@ public class WeightedDrawableNode extends DrawableNode {
         hoverMask.setRadius(getNodeRadius());
     }
 
+    /**
+     * Run the hover action of the node and show its weight while the pointer is over it.
+     * @param isHovering true if the pointer has entered the node, false if it has left
+     */
+    @Override
+    public void handleHover(boolean isHovering) {
+        super.handleHover(isHovering);
+        weight.setVisible(isHovering);
+    }
+
     public String value() {
         return value;
     }
@@ -68,16 +79,18 @@ public class WeightedDrawableNode extends DrawableNode {
 
     public class Weight extends StackPane {
         private final WeightedDrawableNode node;
+        private final Text text;
+        private final Rectangle textBorder;
         private Weight(WeightedDrawableNode node) {
             this.node = node;
 
             setVisible(false);
 
             // Set up the text box for storing the value
-            Text text = new Text(value);
+            text = new Text(value);
             text.setFont(new Font(WEIGHTED_CONTENT_FONT_SIZE));
 
-            Rectangle textBorder = new Rectangle(
+            textBorder = new Rectangle(
                     0 + WEIGHTED_CONTENT_BORDER_WIDTH/2,
                     0 + WEIGHTED_CONTENT_BORDER_WIDTH/2,
                     text.getLayoutBounds().getWidth() + WEIGHTED_CONTENT_PADDING*2 + WEIGHTED_CONTENT_BORDER_WIDTH,
@@ -94,6 +107,28 @@ public class WeightedDrawableNode extends DrawableNode {
             hoverProperty().addListener(hoverListener);
         }
 
+        /**
+         * Paint the weight onto a canvas at its position on the graph, if it is visible.
+         * @param gc the graphics context to paint with
+         */
+        public void render(GraphicsContext gc) {
+            if (!isVisible()) return;
+            // The box is placed half a border width inside the weight, as it is in the stack pane
+            double left = getLayoutX() + WEIGHTED_CONTENT_BORDER_WIDTH/2, top = getLayoutY() + WEIGHTED_CONTENT_BORDER_WIDTH/2;
+            double width = textBorder.getWidth(), height = textBorder.getHeight();
+            gc.setFill(Color.WHITE);
+            gc.fillRect(left, top, width, height);
+            gc.setStroke(Color.BLACK);
+            gc.setLineWidth(WEIGHTED_CONTENT_BORDER_WIDTH);
+            gc.strokeRect(left, top, width, height);
+
+            gc.setFont(text.getFont());
+            gc.setTextAlign(TextAlignment.CENTER);
+            gc.setTextBaseline(VPos.CENTER);
+            gc.setFill(Color.BLACK);
+            gc.fillText(value, left + width/2, top + height/2);
+        }
+
         public String value() {
             return value;
         }
@@ -166,5 +201,10 @@ public class WeightedDrawableNode extends DrawableNode {
             if (o instanceof Weight nodeWeight) return node.equals(nodeWeight.node);
             return false;
         }
+
+        @Override
+        public int hashCode() {
+            return node.hashCode();
+        }
     }
 }
\ No newline at end of file
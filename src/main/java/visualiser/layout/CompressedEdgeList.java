@@ -0,0 +1,118 @@
+package visualiser.layout;
+
+import visualiser.data.GraphTopology;
+
+import java.util.Arrays;
+
+/**
+ * An undirected edge list in compressed sparse row form. The neighbours of node {@code i} are stored in
+ * {@code targets[offsets[i]]} to {@code targets[offsets[i + 1] - 1]}, sorted in ascending order. Each pair of connected
+ * nodes is stored once in each direction, regardless of how many edges connect them.
+ */
+public class CompressedEdgeList {
+    private final int[] offsets;
+    private final int[] targets;
+
+    /**
+     * Create an edge list from existing compressed sparse row arrays. The arrays are used directly and should not be
+     * modified afterwards.
+     * @param offsets the start of each node's neighbours in {@code targets}, must have a length of the number of nodes
+     *                plus one
+     * @param targets the neighbours of every node
+     */
+    public CompressedEdgeList(int[] offsets, int[] targets) {
+        if (offsets.length == 0 || offsets[offsets.length - 1] != targets.length)
+            throw new IllegalArgumentException("Offsets do not match the number of targets");
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+
+    /**
+     * Create an edge list from pairs of connected node indices. The direction of each pair is ignored, duplicate pairs
+     * are only stored once and pairs that connect a node to itself are ignored.
+     * @param nodeCount the number of nodes
+     * @param starts the index of the first node of each pair
+     * @param ends the index of the second node of each pair, must be the same length as {@code starts}
+     * @return the created edge list
+     */
+    public static CompressedEdgeList fromPairs(int nodeCount, int[] starts, int[] ends) {
+        if (starts.length != ends.length) throw new IllegalArgumentException("Every pair must have a start and end");
+
+        // Count the neighbours of each node, including duplicates
+        int[] counts = new int[nodeCount + 1];
+        for (int i = 0; i < starts.length; i++) {
+            if (starts[i] == ends[i]) continue;
+            counts[starts[i]]++;
+            counts[ends[i]]++;
+        }
+        int[] offsets = new int[nodeCount + 1];
+        for (int node = 0; node < nodeCount; node++) offsets[node + 1] = offsets[node] + counts[node];
+
+        // Store both directions of every pair
+        int[] next = Arrays.copyOf(offsets, nodeCount);
+        int[] targets = new int[offsets[nodeCount]];
+        for (int i = 0; i < starts.length; i++) {
+            if (starts[i] == ends[i]) continue;
+            targets[next[starts[i]]++] = ends[i];
+            targets[next[ends[i]]++] = starts[i];
+        }
+
+        // Sort each node's neighbours and remove duplicates, compacting the arrays as they are processed
+        int[] compactOffsets = new int[nodeCount + 1];
+        int size = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            int start = offsets[node], end = offsets[node + 1];
+            Arrays.sort(targets, start, end);
+            compactOffsets[node] = size;
+            for (int i = start; i < end; i++) {
+                if (i > start && targets[i] == targets[i - 1]) continue;
+                targets[size++] = targets[i];
+            }
+        }
+        compactOffsets[nodeCount] = size;
+
+        return new CompressedEdgeList(compactOffsets, Arrays.copyOf(targets, size));
+    }
+
+    /**
+     * Create an undirected edge list from the topology of a graph, ignoring the direction of each edge.
+     * @param topology the topology of the graph
+     * @return the created edge list
+     */
+    public static CompressedEdgeList fromTopology(GraphTopology topology) {
+        int[] offsets = topology.offsets();
+        int[] starts = new int[topology.edgeCount()];
+        for (int node = 0; node < topology.nodeCount(); node++)
+            Arrays.fill(starts, offsets[node], offsets[node + 1], node);
+        return fromPairs(topology.nodeCount(), starts, topology.targets());
+    }
+
+    /**
+     * @return the number of nodes in the edge list
+     */
+    public int nodeCount() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * @param node the index of the node
+     * @return the number of nodes connected to the node
+     */
+    public int neighbourCount(int node) {
+        return offsets[node + 1] - offsets[node];
+    }
+
+    /**
+     * @return the start of each node's neighbours in {@link #targets()}. Should not be modified.
+     */
+    public int[] offsets() {
+        return offsets;
+    }
+
+    /**
+     * @return the neighbours of every node. Should not be modified.
+     */
+    public int[] targets() {
+        return targets;
+    }
+}
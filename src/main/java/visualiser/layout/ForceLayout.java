@@ -0,0 +1,540 @@
+package visualiser.layout;
+
+import visualiser.data.GraphData;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A force-directed layout of a graph that does not depend on JavaFX. Node positions and radii are stored in primitive
+ * arrays and the connections between nodes in a {@link CompressedEdgeList}, so the layout can be run without a display
+ * and the results copied onto drawable nodes afterwards.
+ * <br/>Connected nodes are pulled together by a logarithmic spring, unconnected nodes repel each other with an inverse
+ * square force, and the sides of the layout area repel every node.
+ */
+public class ForceLayout implements IterativeLayout {
+    public static final double
+            DEFAULT_REPULSION_CONSTANT = 10000d,
+            DEFAULT_SIDE_REPULSION_CONSTANT = 1000d,
+            DEFAULT_SPRING_CONSTANT = 1d,
+            DEFAULT_NODE_COLLISION_FORCE = 1d,
+            DEFAULT_IDEAL_EDGE_LENGTH = 270d,
+            DEFAULT_EPSILON = 0.05d,
+            DEFAULT_COOLING = 0.99999d,
+            DEFAULT_THETA = 0.8d;
+    public static final int DEFAULT_MAX_ITERATIONS = 1000000000;
+    /** Layouts with fewer nodes than this always calculate their forces on the calling thread. */
+    private static final int PARALLEL_THRESHOLD = 256;
+    /** The smallest number of nodes that a parallel task will calculate the forces of. */
+    private static final int MIN_CHUNK_SIZE = 64;
+
+    private final int nodeCount;
+    private final double[] x, y, radii;
+    private final CompressedEdgeList edges;
+    private final double width, height;
+    private final double[] forceX, forceY;
+    /** Rebuilt from the current positions every iteration when using {@link RepulsionType#BARNES_HUT}. */
+    private final QuadTree tree = new QuadTree();
+
+    private double repulsionConstant = DEFAULT_REPULSION_CONSTANT;
+    private double sideRepulsionConstant = DEFAULT_SIDE_REPULSION_CONSTANT;
+    private double springConstant = DEFAULT_SPRING_CONSTANT;
+    private double nodeCollisionForce = DEFAULT_NODE_COLLISION_FORCE;
+    private double idealEdgeLength = DEFAULT_IDEAL_EDGE_LENGTH;
+    private double epsilon = DEFAULT_EPSILON;
+    private double cooling = DEFAULT_COOLING;
+    private double theta = DEFAULT_THETA;
+    private int maxIterations = DEFAULT_MAX_ITERATIONS;
+    private boolean sidesRepel = true;
+    private RepulsionType repulsionType = RepulsionType.EXACT;
+    private long seed = new Random().nextLong();
+    private int parallelism = 1;
+    private ForkJoinPool pool = null;
+    /** The multiplier applied to the forces on each node, or null if every node moves freely. */
+    private double[] temperatures = null;
+
+    private int iteration = 0;
+    private double lastMovement = Double.POSITIVE_INFINITY;
+
+    /**
+     * The method used to calculate the repulsion between unconnected nodes.
+     * <ul>
+     *     <li>{@link #EXACT} - Compare every node against every other node.</li>
+     *     <li>{@link #BARNES_HUT} - Approximate distant groups of nodes using a quadtree.</li>
+     * </ul>
+     */
+    public enum RepulsionType {
+        /** Calculate the repulsion between every pair of nodes, O(n^2) per iteration.
+         * @see RepulsionType*/
+        EXACT,
+        /** Build a {@link QuadTree quadtree} over the node centres every iteration and approximate groups of distant
+         * nodes by their centre of mass, O(n log n) per iteration. The accuracy is controlled by
+         * {@link #setTheta(double) theta}.
+         * @see RepulsionType*/
+        BARNES_HUT
+    }
+
+    /**
+     * Create a new layout. The position arrays are used directly and are updated in place as the layout runs.
+     * @param x the x coordinate of the centre of each node
+     * @param y the y coordinate of the centre of each node
+     * @param radii the radius of each node
+     * @param edges the connections between the nodes
+     * @param width the width of the layout area
+     * @param height the height of the layout area
+     */
+    public ForceLayout(double[] x, double[] y, double[] radii, CompressedEdgeList edges, double width, double height) {
+        nodeCount = edges.nodeCount();
+        if (x.length < nodeCount || y.length < nodeCount || radii.length < nodeCount)
+            throw new IllegalArgumentException("Every node must have a position and a radius");
+
+        this.x = x;
+        this.y = y;
+        this.radii = radii;
+        this.edges = edges;
+        this.width = width;
+        this.height = height;
+        this.forceX = new double[nodeCount];
+        this.forceY = new double[nodeCount];
+    }
+
+    /**
+     * Create a layout for graph data with every node placed at a random position. Node indices in the layout match
+     * the {@link GraphData#indexOf(int) indices} of the nodes in the graph data.
+     * @param graphData the graph to lay out
+     * @param width the width of the layout area
+     * @param height the height of the layout area
+     * @param radius the radius of every node
+     * @param seed the seed used for the initial positions and the layout itself
+     * @return the created layout
+     */
+    public static ForceLayout fromGraphData(GraphData graphData, double width, double height, double radius, long seed) {
+        int nodeCount = graphData.nodeCount();
+
+        Random random = new Random(seed);
+        double[] x = new double[nodeCount], y = new double[nodeCount], radii = new double[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            x[i] = random.nextDouble(width);
+            y[i] = random.nextDouble(height);
+            radii[i] = radius;
+        }
+
+        ForceLayout layout = new ForceLayout(x, y, radii, CompressedEdgeList.fromTopology(graphData.getTopology()), width, height);
+        layout.setSeed(seed);
+        return layout;
+    }
+
+    /**
+     * Run the layout until the nodes stop moving or the maximum number of iterations is reached.
+     * @return the total number of iterations that have been run
+     */
+    @Override
+    public int run() {
+        while (!isConverged()) step();
+        return iteration;
+    }
+
+    /**
+     * Run a single iteration of the layout, calculating the force on every node and moving each node accordingly.
+     * @return the greatest distance that any node moved
+     */
+    @Override
+    public double step() {
+        iteration++;
+        calcForces();
+
+        double coolingMultiplier = Math.pow(cooling, iteration);
+        double maxMove = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            double multiplier = temperatures == null ? coolingMultiplier : coolingMultiplier * temperatures[node];
+            if (multiplier == 0) continue;
+            double amountMoved = moveNode(node, forceX[node] * multiplier, forceY[node] * multiplier);
+            if (amountMoved > maxMove) maxMove = amountMoved;
+        }
+
+        lastMovement = maxMove;
+        return maxMove;
+    }
+
+    /**
+     * @return true if the last iteration moved no node further than epsilon or the maximum number of iterations has
+     * been reached
+     */
+    @Override
+    public boolean isConverged() {
+        return iteration >= maxIterations || lastMovement <= epsilon;
+    }
+
+    /**
+     * @return the number of iterations that have been run
+     */
+    @Override
+    public int getIteration() {
+        return iteration;
+    }
+
+    /**
+     * @return the number of nodes in the layout
+     */
+    @Override
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @param node the index of the node
+     * @return the x coordinate of the centre of the node
+     */
+    public double getX(int node) {
+        return x[node];
+    }
+
+    /**
+     * @param node the index of the node
+     * @return the y coordinate of the centre of the node
+     */
+    public double getY(int node) {
+        return y[node];
+    }
+
+    /**
+     * Copy the current position of every node into the given arrays.
+     * @param x the array to copy the x coordinates into, must have a length of at least {@link #nodeCount()}
+     * @param y the array to copy the y coordinates into, must have a length of at least {@link #nodeCount()}
+     */
+    @Override
+    public void copyPositionsInto(double[] x, double[] y) {
+        System.arraycopy(this.x, 0, x, 0, nodeCount);
+        System.arraycopy(this.y, 0, y, 0, nodeCount);
+    }
+
+    private void calcForces() {
+        QuadTree tree = null;
+        if (repulsionType.equals(RepulsionType.BARNES_HUT)) {
+            this.tree.build(x, y, nodeCount);
+            tree = this.tree;
+        }
+
+        if (pool == null || nodeCount < PARALLEL_THRESHOLD) calcForcesOn(0, nodeCount, tree);
+        else {
+            int chunkSize = Math.max(MIN_CHUNK_SIZE, nodeCount / (parallelism * 8));
+            pool.invoke(new ForceTask(0, nodeCount, chunkSize, tree));
+        }
+    }
+
+    /**
+     * Calculate the force on each node in a range. The force on each node only depends on the current positions, so
+     * ranges can be calculated at the same time and in any order.
+     * @param start the index of the first node in the range
+     * @param end the index after the last node in the range
+     * @param tree the quadtree of the current positions, or null if the exact repulsion is used
+     */
+    private void calcForcesOn(int start, int end, QuadTree tree) {
+        for (int node = start; node < end; node++) {
+            if (temperatures != null && temperatures[node] == 0) continue;
+            if (tree == null) calcExactRepulsionOn(node);
+            else calcBarnesHutRepulsionOn(node, tree);
+            calcSpringsOn(node);
+            if (sidesRepel) calcSideRepulsionOn(node);
+        }
+    }
+
+    /**
+     * Set the force on a node to the repulsion from every other node. Nodes at the same position are pushed apart by
+     * a random force instead.
+     */
+    private void calcExactRepulsionOn(int node) {
+        double nodeX = x[node], nodeY = y[node];
+        double fx = 0, fy = 0;
+
+        for (int other = 0; other < nodeCount; other++) {
+            if (other == node) continue;
+            double dx = nodeX - x[other];
+            double dy = nodeY - y[other];
+            if (dx == 0 && dy == 0) {
+                fx += createRandomForce(node, other, 0);
+                fy += createRandomForce(node, other, 1);
+                continue;
+            }
+            double distance = Math.sqrt(dx * dx + dy * dy);
+            double magnitude = repulsionConstant / (distance * distance * distance);
+            fx += dx * magnitude;
+            fy += dy * magnitude;
+        }
+
+        forceX[node] = fx;
+        forceY[node] = fy;
+    }
+
+    /**
+     * Set the force on a node to the approximate repulsion from every other node using a quadtree. Nodes at the same
+     * position are pushed apart by a random force instead.
+     */
+    private void calcBarnesHutRepulsionOn(int node, QuadTree tree) {
+        double nodeX = x[node], nodeY = y[node];
+        forceX[node] = 0;
+        forceY[node] = 0;
+        tree.addRepulsionOn(nodeX, nodeY, theta, repulsionConstant, forceX, forceY, node);
+
+        int collisions = tree.countPointsAt(nodeX, nodeY) - 1;
+        for (int i = 0; i < collisions; i++) {
+            // The colliding nodes are not known, so each collision is identified by its count instead
+            forceX[node] += createRandomForce(node, -1 - i, 0);
+            forceY[node] += createRandomForce(node, -1 - i, 1);
+        }
+    }
+
+    /**
+     * Replace the repulsion between a node and each of its neighbours with the spring force between them. Neighbours
+     * at the same position have already been given a random force and are skipped.
+     */
+    private void calcSpringsOn(int node) {
+        int[] offsets = edges.offsets();
+        int[] targets = edges.targets();
+        double nodeX = x[node], nodeY = y[node];
+        double fx = forceX[node], fy = forceY[node];
+
+        for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+            int neighbour = targets[i];
+            double dx = nodeX - x[neighbour];
+            double dy = nodeY - y[neighbour];
+            if (dx == 0 && dy == 0) continue;
+            double distance = Math.sqrt(dx * dx + dy * dy);
+
+            // Remove the repulsion that was applied by the neighbour
+            double repulsion = repulsionConstant / (distance * distance * distance);
+            fx -= dx * repulsion;
+            fy -= dy * repulsion;
+
+            // Pull towards the neighbour, or push away if closer than the ideal edge length
+            double spring = springConstant * Math.log(distance / idealEdgeLength) / distance;
+            fx -= dx * spring;
+            fy -= dy * spring;
+        }
+
+        forceX[node] = fx;
+        forceY[node] = fy;
+    }
+
+    /**
+     * Add the repulsion from each side of the layout area to the force on a node.
+     */
+    private void calcSideRepulsionOn(int node) {
+        double top = y[node], bottom = height - y[node];
+        double left = x[node], right = width - x[node];
+        if (top != 0) forceY[node] += sideRepulsionConstant / (top * Math.abs(top));
+        if (bottom != 0) forceY[node] -= sideRepulsionConstant / (bottom * Math.abs(bottom));
+        if (left != 0) forceX[node] += sideRepulsionConstant / (left * Math.abs(left));
+        if (right != 0) forceX[node] -= sideRepulsionConstant / (right * Math.abs(right));
+    }
+
+    /**
+     * Create one component of the random force used to separate two nodes at the same position. The value only
+     * depends on the seed, the iteration and its arguments, so it is the same no matter which thread calculates it or
+     * in which order.
+     * @param node the node that the force acts on
+     * @param other the node at the same position
+     * @param axis 0 for the x component, 1 for the y component
+     * @return a random value between -nodeCollisionForce and nodeCollisionForce, scaled down by the iteration
+     */
+    private double createRandomForce(int node, int other, int axis) {
+        // todo: instead of this it might be an idea to add epsilon to 0s to prevent dividing by 0 instead of generating random values
+        long hash = mix(mix(mix(mix(seed + iteration) + node) + other) + axis);
+        double random = (hash >>> 11) * 0x1.0p-53;
+        return (random * 2 - 1) * nodeCollisionForce / iteration;
+    }
+
+    /**
+     * The SplitMix64 mixing function.
+     */
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Move a node by a vector, keeping the whole node within the layout area.
+     * @return the distance that the node moved
+     */
+    private double moveNode(int node, double dx, double dy) {
+        double radius = radii[node];
+        double startX = x[node], startY = y[node];
+        double endX = startX + dx, endY = startY + dy;
+
+        if (endY - radius <= 0) endY = radius;
+        else if (endY + radius >= height) endY = height - radius;
+        if (endX - radius <= 0) endX = radius;
+        else if (endX + radius >= width) endX = width - radius;
+
+        x[node] = endX;
+        y[node] = endY;
+
+        double movedX = endX - startX, movedY = endY - startY;
+        return Math.sqrt(movedX * movedX + movedY * movedY);
+    }
+
+    /**
+     * Set the method used to calculate the repulsion between unconnected nodes.
+     * @param repulsionType the {@link RepulsionType} to use
+     */
+    public void setRepulsionType(RepulsionType repulsionType) {
+        this.repulsionType = repulsionType;
+    }
+
+    /**
+     * Set the Barnes-Hut accuracy parameter, only used with {@link RepulsionType#BARNES_HUT}. A cell of the quadtree
+     * is approximated as a single node when its size divided by its distance from a node is less than theta. Lower
+     * values are more accurate but slower, 0 compares every node individually.
+     * @param theta the accuracy parameter, must be 0 or greater
+     */
+    public void setTheta(double theta) {
+        if (theta < 0) throw new IllegalArgumentException("Theta cannot be less than 0");
+        this.theta = theta;
+    }
+
+    /**
+     * @param repulsionConstant the strength of the repulsion between unconnected nodes
+     */
+    public void setRepulsionConstant(double repulsionConstant) {
+        this.repulsionConstant = repulsionConstant;
+    }
+
+    /**
+     * @param sideRepulsionConstant the strength of the repulsion between each node and the sides of the layout area
+     */
+    public void setSideRepulsionConstant(double sideRepulsionConstant) {
+        this.sideRepulsionConstant = sideRepulsionConstant;
+    }
+
+    /**
+     * @param sidesRepel true if the sides of the layout area should repel nodes, false otherwise
+     */
+    public void setSidesRepel(boolean sidesRepel) {
+        this.sidesRepel = sidesRepel;
+    }
+
+    /**
+     * @param springConstant the strength of the spring between connected nodes
+     */
+    public void setSpringConstant(double springConstant) {
+        this.springConstant = springConstant;
+    }
+
+    /**
+     * @param nodeCollisionForce the strength of the random force that separates nodes at the same position
+     */
+    public void setNodeCollisionForce(double nodeCollisionForce) {
+        this.nodeCollisionForce = nodeCollisionForce;
+    }
+
+    /**
+     * @param idealEdgeLength the distance between connected nodes at which their spring applies no force
+     */
+    public void setIdealEdgeLength(double idealEdgeLength) {
+        if (idealEdgeLength <= 0) throw new IllegalArgumentException("Ideal edge length must be greater than 0");
+        this.idealEdgeLength = idealEdgeLength;
+    }
+
+    /**
+     * @param epsilon the layout is finished once no node moves further than this in a single iteration
+     */
+    public void setEpsilon(double epsilon) {
+        this.epsilon = epsilon;
+    }
+
+    /**
+     * @param cooling the multiplier applied to every force once per iteration, the forces in iteration {@code t} are
+     *                multiplied by {@code cooling^t}
+     */
+    public void setCooling(double cooling) {
+        this.cooling = cooling;
+    }
+
+    /**
+     * Set the temperature of each node, a multiplier applied to the forces on the node on top of the cooling. Nodes
+     * with a temperature of 0 are pinned, they are never moved but still attract and repel the other nodes.
+     * @param temperatures the temperature of each node, usually between 0 and 1, or null to move every node freely
+     */
+    public void setNodeTemperatures(double[] temperatures) {
+        if (temperatures != null && temperatures.length < nodeCount)
+            throw new IllegalArgumentException("Every node must have a temperature");
+        this.temperatures = temperatures;
+    }
+
+    /**
+     * @param maxIterations the maximum number of iterations before the layout is considered finished
+     */
+    public void setMaxIterations(int maxIterations) {
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Set the seed of the random forces used to separate nodes at the same position. Layouts with the same starting
+     * positions, parameters and seed produce the same result, regardless of their parallelism.
+     * @param seed the seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Set the number of threads used to calculate the forces on the nodes. Small layouts are always calculated on the
+     * calling thread.
+     * @param parallelism the number of threads, 1 to calculate every force on the calling thread
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be at least 1");
+        if (parallelism == this.parallelism) return;
+        if (pool != null) pool.shutdown();
+        this.parallelism = parallelism;
+        pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+    }
+
+    /**
+     * @return the number of threads used to calculate the forces on the nodes
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Stop the threads used to calculate the forces. The layout can still be run afterwards, but all forces will be
+     * calculated on the calling thread.
+     */
+    @Override
+    public void shutdown() {
+        if (pool != null) pool.shutdown();
+        pool = null;
+        parallelism = 1;
+    }
+
+    /**
+     * Recursively splits a range of nodes in half until it is no larger than the chunk size, then calculates the
+     * forces on the nodes in the range.
+     */
+    @SuppressWarnings("serial")
+    private class ForceTask extends RecursiveAction {
+        private final int start, end, chunkSize;
+        private final QuadTree tree;
+
+        private ForceTask(int start, int end, int chunkSize, QuadTree tree) {
+            this.start = start;
+            this.end = end;
+            this.chunkSize = chunkSize;
+            this.tree = tree;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= chunkSize) {
+                calcForcesOn(start, end, tree);
+                return;
+            }
+            int middle = (start + end) >>> 1;
+            invokeAll(new ForceTask(start, middle, chunkSize, tree), new ForceTask(middle, end, chunkSize, tree));
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package visualiser.layout;
+
+/**
+ * A layout of a graph that moves its nodes a little every iteration until they settle. Nodes are identified by their
+ * index, from 0 to {@link #nodeCount()} - 1.
+ */
+public interface IterativeLayout {
+    /**
+     * Run the layout until it has converged.
+     * @return the total number of iterations that have been run
+     */
+    int run();
+
+    /**
+     * Run a single iteration of the layout.
+     * @return the greatest distance that any node moved
+     */
+    double step();
+
+    /**
+     * @return true if the layout has finished and no more iterations need to be run
+     */
+    boolean isConverged();
+
+    /**
+     * @return the number of iterations that have been run
+     */
+    int getIteration();
+
+    /**
+     * @return the number of nodes in the layout
+     */
+    int nodeCount();
+
+    /**
+     * Copy the current position of every node into the given arrays.
+     * @param x the array to copy the x coordinates into, must have a length of at least {@link #nodeCount()}
+     * @param y the array to copy the y coordinates into, must have a length of at least {@link #nodeCount()}
+     */
+    void copyPositionsInto(double[] x, double[] y);
+
+    /**
+     * Stop any threads used by the layout. The layout can still be run afterwards on the calling thread.
+     */
+    void shutdown();
+}
@@ -0,0 +1,242 @@
+package visualiser.layout;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HexFormat;
+
+/**
+ * A persistent cache of finished layouts, stored as one file per layout in a directory. Each layout is identified by a
+ * key created with {@link #createKey(CompressedEdgeList, double[], double, double, String)}, a SHA-256 hash of the
+ * connections between the nodes, the size of each node, the size of the graph and the parameters of the layout. The
+ * starting positions of the nodes are not part of the key, so a cached layout is reused however the nodes were placed
+ * before the layout was run.
+ * <br/>When the layouts in the directory are larger than the maximum size the least recently used layouts are deleted
+ * first. The last modified time of each file records when the layout was last used, so the order is kept between runs.
+ */
+public class LayoutCache {
+    public static final long DEFAULT_MAX_SIZE = 64L << 20;
+
+    private static final String fileExtension = ".layout";
+    private static final int MAGIC = 0x564E474C; // "VNGL"
+    private static final int HEADER_SIZE = 8;
+    // Changing the key format or the layout algorithms should change this so that old layouts are not reused
+    private static final String keyVersion = "layout-cache-1";
+
+    private final File directory;
+    private long maxSize;
+
+    /**
+     * Create a layout cache with the {@link #DEFAULT_MAX_SIZE default maximum size}.
+     * @param directory the directory to store layouts in, created when the first layout is stored
+     */
+    public LayoutCache(File directory) {
+        this(directory, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param directory the directory to store layouts in, created when the first layout is stored
+     * @param maxSize the maximum total size of the stored layouts in bytes
+     */
+    public LayoutCache(File directory, long maxSize) {
+        if (directory == null) throw new IllegalArgumentException("Directory cannot be null");
+        this.directory = directory;
+        setMaxSize(maxSize);
+    }
+
+    /**
+     * Create the key of a layout. The same graph laid out with the same parameters always has the same key.
+     * @param edges the connections between the nodes
+     * @param radii the radius of each node
+     * @param width the width of the graph
+     * @param height the height of the graph
+     * @param parameters a description of the layout algorithm and every parameter that affects its result
+     * @return the key, 64 hexadecimal characters
+     */
+    public static String createKey(CompressedEdgeList edges, double[] radii, double width, double height,
+                                   String parameters) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 13);
+        digest.update(keyVersion.getBytes(StandardCharsets.UTF_8));
+        buffer.putInt(edges.nodeCount()).putInt(edges.targets().length).putDouble(width).putDouble(height);
+        for (int offset : edges.offsets()) buffer = putInt(digest, buffer, offset);
+        for (int target : edges.targets()) buffer = putInt(digest, buffer, target);
+        for (double radius : radii) buffer = putLong(digest, buffer, Double.doubleToLongBits(radius));
+        buffer.flip();
+        digest.update(buffer);
+        digest.update(parameters.getBytes(StandardCharsets.UTF_8));
+
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static ByteBuffer putInt(MessageDigest digest, ByteBuffer buffer, int value) {
+        if (buffer.remaining() < Integer.BYTES) flush(digest, buffer);
+        return buffer.putInt(value);
+    }
+
+    private static ByteBuffer putLong(MessageDigest digest, ByteBuffer buffer, long value) {
+        if (buffer.remaining() < Long.BYTES) flush(digest, buffer);
+        return buffer.putLong(value);
+    }
+
+    private static void flush(MessageDigest digest, ByteBuffer buffer) {
+        buffer.flip();
+        digest.update(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * Load a cached layout. If the layout is found it becomes the most recently used layout.
+     * @param key the key of the layout
+     * @param x filled with the x coordinate of each node if the layout is found
+     * @param y filled with the y coordinate of each node if the layout is found
+     * @return true if the layout was found, false if it was not cached, could not be read, or has a different
+     * number of nodes to the arrays
+     */
+    public synchronized boolean load(String key, double[] x, double[] y) {
+        File file = fileOf(key);
+        if (!file.isFile()) return false;
+
+        ByteBuffer buffer;
+        try {
+            buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        } catch (IOException e) {
+            return false;
+        }
+
+        int nodeCount = x.length;
+        if (y.length != nodeCount || buffer.capacity() != sizeOf(nodeCount)
+                || buffer.getInt() != MAGIC || buffer.getInt() != nodeCount) {
+            // The file is damaged, or the key is shared by a different number of nodes, which should not happen
+            file.delete();
+            return false;
+        }
+        buffer.asDoubleBuffer().get(x).get(y);
+
+        file.setLastModified(System.currentTimeMillis());
+        return true;
+    }
+
+    /**
+     * Store a layout, replacing any layout with the same key, then delete the least recently used layouts until the
+     * cache is no larger than its maximum size. A layout that is larger than the maximum size is not stored.
+     * @param key the key of the layout
+     * @param x the x coordinate of each node
+     * @param y the y coordinate of each node
+     * @throws IOException if the layout could not be written
+     */
+    public synchronized void store(String key, double[] x, double[] y) throws IOException {
+        if (x.length != y.length) throw new IllegalArgumentException("There must be an x and y coordinate for every node");
+        long size = sizeOf(x.length);
+        if (size > maxSize || size > Integer.MAX_VALUE) return;
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        buffer.putInt(MAGIC).putInt(x.length);
+        buffer.asDoubleBuffer().put(x).put(y);
+
+        // Write to a temporary file first so that a layout is never partly written
+        Files.createDirectories(directory.toPath());
+        File file = fileOf(key);
+        File temporary = File.createTempFile("layout", ".tmp", directory);
+        try {
+            Files.write(temporary.toPath(), buffer.array());
+            try {
+                Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            temporary.delete();
+        }
+
+        evict();
+    }
+
+    /**
+     * Delete every cached layout.
+     */
+    public synchronized void clear() {
+        for (File file : listLayouts()) file.delete();
+    }
+
+    /**
+     * @return the total size of the cached layouts in bytes
+     */
+    public synchronized long size() {
+        long size = 0;
+        for (File file : listLayouts()) size += file.length();
+        return size;
+    }
+
+    /**
+     * Set the maximum total size of the stored layouts. Layouts are only deleted the next time a layout is stored.
+     * @param maxSize the maximum size in bytes, must be 0 or greater
+     */
+    public synchronized void setMaxSize(long maxSize) {
+        if (maxSize < 0) throw new IllegalArgumentException("Max size cannot be less than 0");
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return the maximum total size of the stored layouts in bytes
+     */
+    public synchronized long getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * @return the directory that the layouts are stored in
+     */
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Delete the least recently used layouts until the cache is no larger than its maximum size.
+     */
+    private void evict() {
+        File[] files = listLayouts();
+        long size = 0;
+        for (File file : files) size += file.length();
+        if (size <= maxSize) return;
+
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified).thenComparing(File::getName));
+        for (File file : files) {
+            if (size <= maxSize) return;
+            long fileSize = file.length();
+            if (file.delete()) size -= fileSize;
+        }
+    }
+
+    private File[] listLayouts() {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(fileExtension));
+        return files == null ? new File[0] : files;
+    }
+
+    private File fileOf(String key) {
+        // Keys are only ever hexadecimal, which also stops a key from referring to a file outside the directory
+        if (!key.matches("[0-9a-fA-F]+"))
+            throw new IllegalArgumentException("Invalid layout key \"" + key + "\"");
+        return new File(directory, key + fileExtension);
+    }
+
+    private static long sizeOf(int nodeCount) {
+        return HEADER_SIZE + 2L * Double.BYTES * nodeCount;
+    }
+}
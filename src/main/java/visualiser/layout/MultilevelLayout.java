@@ -0,0 +1,347 @@
+package visualiser.layout;
+
+import visualiser.layout.ForceLayout.RepulsionType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A force-directed layout that first lays out a simplified version of the graph and then adds the detail back in.
+ * <br/>The graph is repeatedly coarsened by merging pairs of connected nodes, found using a maximal matching, until it
+ * is small enough or can no longer be shrunk. The coarsest graph is laid out until it converges, then each level is
+ * prolonged onto the next finer level, with every node starting at the position of the node it was merged into, and
+ * refined using a limited number of {@link ForceLayout} iterations. As the overall shape of the graph is decided while
+ * it only has a few nodes, large graphs need far fewer iterations than when laying out the full graph from random
+ * positions.
+ */
+public class MultilevelLayout implements IterativeLayout {
+    public static final int
+            DEFAULT_COARSEST_SIZE = 50,
+            DEFAULT_REFINEMENT_ITERATIONS = 300;
+    /** Coarsening stops once a level has more than this fraction of the nodes of the level before it. */
+    private static final double MIN_COARSENING_RATIO = 0.9d;
+
+    private final double[] x, y, radii;
+    private final CompressedEdgeList edges;
+    private final double width, height;
+
+    private int coarsestSize = DEFAULT_COARSEST_SIZE;
+    private int refinementIterations = DEFAULT_REFINEMENT_ITERATIONS;
+    private double idealEdgeLength = ForceLayout.DEFAULT_IDEAL_EDGE_LENGTH;
+    private RepulsionType repulsionType = RepulsionType.BARNES_HUT;
+    private double theta = ForceLayout.DEFAULT_THETA;
+    private int parallelism = 1;
+    private long seed = new Random().nextLong();
+
+    // The levels of the graph, level 0 is the original graph. Created when the layout first runs.
+    private ArrayList<Level> levels = null;
+    private int currentLevel;
+    private ForceLayout currentLayout;
+    private int iteration = 0;
+
+    /**
+     * Create a new multilevel layout. The position arrays are used directly and contain the final layout once it has
+     * finished. The starting positions are only used to place the nodes of the coarsest level.
+     * @param x the x coordinate of the centre of each node
+     * @param y the y coordinate of the centre of each node
+     * @param radii the radius of each node
+     * @param edges the connections between the nodes
+     * @param width the width of the layout area
+     * @param height the height of the layout area
+     */
+    public MultilevelLayout(double[] x, double[] y, double[] radii, CompressedEdgeList edges, double width, double height) {
+        int nodeCount = edges.nodeCount();
+        if (x.length < nodeCount || y.length < nodeCount || radii.length < nodeCount)
+            throw new IllegalArgumentException("Every node must have a position and a radius");
+
+        this.x = x;
+        this.y = y;
+        this.radii = radii;
+        this.edges = edges;
+        this.width = width;
+        this.height = height;
+    }
+
+    @Override
+    public int run() {
+        while (!isConverged()) step();
+        return iteration;
+    }
+
+    /**
+     * Run a single iteration of the current level. Once a level has finished the next finer level is prolonged from
+     * it, so the number of nodes that move each iteration grows as the layout runs.
+     * @return the greatest distance that any node of the current level moved
+     */
+    @Override
+    public double step() {
+        if (levels == null) start();
+        else if (currentLayout.isConverged() && currentLevel > 0) refineLevel(currentLevel - 1);
+
+        iteration++;
+        return currentLayout.step();
+    }
+
+    /**
+     * @return true if the original graph has been refined, false otherwise
+     */
+    @Override
+    public boolean isConverged() {
+        return levels != null && currentLevel == 0 && currentLayout.isConverged();
+    }
+
+    /**
+     * @return the total number of iterations that have been run across every level
+     */
+    @Override
+    public int getIteration() {
+        return iteration;
+    }
+
+    @Override
+    public int nodeCount() {
+        return edges.nodeCount();
+    }
+
+    /**
+     * @return the number of levels, including the original graph, or 0 if the layout has not started
+     */
+    public int levelCount() {
+        return levels == null ? 0 : levels.size();
+    }
+
+    /**
+     * Copy the current position of every node into the given arrays. While a coarser level is being laid out, each
+     * node is given the position of the node that it was merged into.
+     * @param x the array to copy the x coordinates into, must have a length of at least {@link #nodeCount()}
+     * @param y the array to copy the y coordinates into, must have a length of at least {@link #nodeCount()}
+     */
+    @Override
+    public void copyPositionsInto(double[] x, double[] y) {
+        int nodeCount = nodeCount();
+        if (levels == null || currentLevel == 0) {
+            System.arraycopy(this.x, 0, x, 0, nodeCount);
+            System.arraycopy(this.y, 0, y, 0, nodeCount);
+            return;
+        }
+
+        Level level = levels.get(currentLevel);
+        for (int node = 0; node < nodeCount; node++) {
+            int coarseNode = node;
+            for (int i = 0; i < currentLevel; i++) coarseNode = levels.get(i).parents[coarseNode];
+            x[node] = level.x[coarseNode];
+            y[node] = level.y[coarseNode];
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        if (currentLayout != null) currentLayout.shutdown();
+    }
+
+    /**
+     * Coarsen the graph and create the layout of the coarsest level.
+     */
+    private void start() {
+        levels = new ArrayList<>();
+        Level level = new Level(x, y, radii, edges);
+        levels.add(level);
+
+        while (level.nodeCount() > coarsestSize) {
+            Level coarser = coarsen(level);
+            if (coarser.nodeCount() > level.nodeCount() * MIN_COARSENING_RATIO) break;
+            levels.add(coarser);
+            level = coarser;
+        }
+
+        currentLevel = levels.size() - 1;
+        currentLayout = createLayout(level, ForceLayout.DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * Merge pairs of connected nodes using a maximal matching. Nodes are visited from the lowest to the highest degree
+     * and each is matched with its unmatched neighbour of the lowest degree, so that hubs are not merged with each
+     * other early on. Nodes that cannot be matched are carried over to the coarser level on their own.
+     * @param level the level to coarsen, its parents are set to the index of each node in the coarser level
+     * @return the coarser level
+     */
+    private Level coarsen(Level level) {
+        int nodeCount = level.nodeCount();
+        int[] offsets = level.edges.offsets();
+        int[] targets = level.edges.targets();
+
+        // Counting sort the nodes by degree so that the order does not depend on anything but the graph
+        int maxDegree = 0;
+        for (int node = 0; node < nodeCount; node++) maxDegree = Math.max(maxDegree, level.edges.neighbourCount(node));
+        int[] degreeStarts = new int[maxDegree + 2];
+        for (int node = 0; node < nodeCount; node++) degreeStarts[level.edges.neighbourCount(node) + 1]++;
+        for (int degree = 0; degree <= maxDegree; degree++) degreeStarts[degree + 1] += degreeStarts[degree];
+        int[] order = new int[nodeCount];
+        for (int node = 0; node < nodeCount; node++) order[degreeStarts[level.edges.neighbourCount(node)]++] = node;
+
+        int[] parents = level.parents;
+        Arrays.fill(parents, -1);
+        int coarseCount = 0;
+        for (int node : order) {
+            if (parents[node] != -1) continue;
+            int match = -1;
+            for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                int neighbour = targets[i];
+                if (parents[neighbour] == -1 && (match == -1
+                        || level.edges.neighbourCount(neighbour) < level.edges.neighbourCount(match)))
+                    match = neighbour;
+            }
+            parents[node] = coarseCount;
+            if (match != -1) parents[match] = coarseCount;
+            coarseCount++;
+        }
+
+        // Each coarse node starts at the centre of the nodes merged into it and is as large as the largest of them
+        double[] coarseX = new double[coarseCount], coarseY = new double[coarseCount];
+        double[] coarseRadii = new double[coarseCount];
+        int[] memberCounts = new int[coarseCount];
+        for (int node = 0; node < nodeCount; node++) {
+            int parent = parents[node];
+            coarseX[parent] += level.x[node];
+            coarseY[parent] += level.y[node];
+            coarseRadii[parent] = Math.max(coarseRadii[parent], level.radii[node]);
+            memberCounts[parent]++;
+        }
+        for (int parent = 0; parent < coarseCount; parent++) {
+            coarseX[parent] /= memberCounts[parent];
+            coarseY[parent] /= memberCounts[parent];
+        }
+
+        int[] starts = new int[targets.length], ends = new int[targets.length];
+        for (int node = 0; node < nodeCount; node++) {
+            for (int i = offsets[node]; i < offsets[node + 1]; i++) {
+                starts[i] = parents[node];
+                ends[i] = parents[targets[i]];
+            }
+        }
+
+        return new Level(coarseX, coarseY, coarseRadii, CompressedEdgeList.fromPairs(coarseCount, starts, ends));
+    }
+
+    /**
+     * Place the nodes of a level at the positions of the nodes they were merged into and start refining it. Nodes
+     * that were merged together are moved a short distance apart in a random direction so that they do not start at
+     * the same position.
+     * @param levelIndex the index of the level to refine
+     */
+    private void refineLevel(int levelIndex) {
+        Level level = levels.get(levelIndex);
+        Level coarser = levels.get(levelIndex + 1);
+        Random random = new Random(seed + levelIndex);
+
+        for (int node = 0; node < level.nodeCount(); node++) {
+            int parent = level.parents[node];
+            double radius = level.radii[node];
+            double angle = random.nextDouble(2 * Math.PI);
+            level.x[node] = Math.min(Math.max(coarser.x[parent] + Math.cos(angle) * radius, radius), width - radius);
+            level.y[node] = Math.min(Math.max(coarser.y[parent] + Math.sin(angle) * radius, radius), height - radius);
+        }
+
+        currentLayout.shutdown();
+        currentLevel = levelIndex;
+        currentLayout = createLayout(level, refinementIterations);
+    }
+
+    private ForceLayout createLayout(Level level, int maxIterations) {
+        ForceLayout layout = new ForceLayout(level.x, level.y, level.radii, level.edges, width, height);
+        layout.setIdealEdgeLength(idealEdgeLength);
+        layout.setRepulsionType(repulsionType);
+        layout.setTheta(theta);
+        layout.setParallelism(parallelism);
+        layout.setSeed(seed + currentLevel);
+        layout.setMaxIterations(maxIterations);
+        return layout;
+    }
+
+    /**
+     * Set the number of nodes at which the graph is no longer coarsened.
+     * @param coarsestSize the largest number of nodes that the coarsest level can have, unless the graph cannot be
+     *                     coarsened any further
+     */
+    public void setCoarsestSize(int coarsestSize) {
+        if (coarsestSize < 1) throw new IllegalArgumentException("Coarsest size must be at least 1");
+        this.coarsestSize = coarsestSize;
+    }
+
+    /**
+     * Set the maximum number of iterations used to refine each level after it has been prolonged from the coarser
+     * level, including the original graph. Levels stop refining early if they converge.
+     * @param refinementIterations the maximum number of iterations for each level
+     */
+    public void setRefinementIterations(int refinementIterations) {
+        if (refinementIterations < 1) throw new IllegalArgumentException("Refinement iterations must be at least 1");
+        this.refinementIterations = refinementIterations;
+    }
+
+    /**
+     * @param idealEdgeLength the distance between connected nodes at which their spring applies no force
+     * @see ForceLayout#setIdealEdgeLength(double)
+     */
+    public void setIdealEdgeLength(double idealEdgeLength) {
+        if (idealEdgeLength <= 0) throw new IllegalArgumentException("Ideal edge length must be greater than 0");
+        this.idealEdgeLength = idealEdgeLength;
+    }
+
+    /**
+     * @param repulsionType the method used to calculate the repulsion between unconnected nodes on every level
+     * @see ForceLayout#setRepulsionType(RepulsionType)
+     */
+    public void setRepulsionType(RepulsionType repulsionType) {
+        this.repulsionType = repulsionType;
+    }
+
+    /**
+     * @param theta the Barnes-Hut accuracy parameter, must be 0 or greater
+     * @see ForceLayout#setTheta(double)
+     */
+    public void setTheta(double theta) {
+        if (theta < 0) throw new IllegalArgumentException("Theta cannot be less than 0");
+        this.theta = theta;
+    }
+
+    /**
+     * @param parallelism the number of threads used to calculate the forces on every level
+     * @see ForceLayout#setParallelism(int)
+     */
+    public void setParallelism(int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be at least 1");
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Set the seed used when separating merged nodes and for the random forces of each level. Layouts with the same
+     * starting positions, parameters and seed produce the same result.
+     * @param seed the seed
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * A single level of the graph. Nodes of every level except the coarsest store the index of the node of the next
+     * coarser level that they were merged into.
+     */
+    private static class Level {
+        private final double[] x, y, radii;
+        private final CompressedEdgeList edges;
+        private final int[] parents;
+
+        private Level(double[] x, double[] y, double[] radii, CompressedEdgeList edges) {
+            this.x = x;
+            this.y = y;
+            this.radii = radii;
+            this.edges = edges;
+            this.parents = new int[edges.nodeCount()];
+        }
+
+        private int nodeCount() {
+            return edges.nodeCount();
+        }
+    }
+}
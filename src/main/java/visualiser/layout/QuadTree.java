@@ -0,0 +1,229 @@
+package visualiser.layout;
+
+import java.util.Arrays;
+
+/**
+ * A Barnes-Hut quadtree over a set of points. Every cell stores the number of points within it and their centre of
+ * mass so that groups of points far from a query point can be approximated as a single point.
+ * <br/>Cells are stored in flat primitive arrays rather than as objects, and the arrays are kept between calls to
+ * {@link #build(double[], double[], int)}, so rebuilding the tree every iteration of a layout does not allocate once
+ * the arrays have grown to fit the points.
+ */
+public class QuadTree {
+    /** Cells at this depth are no longer subdivided, any further points are stored together in the same leaf. */
+    private static final int MAX_DEPTH = 32;
+    private static final int INITIAL_CAPACITY = 64;
+
+    // The properties of each cell, indexed by cell. Cell 0 is the root.
+    private double[] minX, minY, size, sumX, sumY, pointX, pointY;
+    private int[] count, depth;
+    /** The index of the first of the four consecutive children of each cell, or -1 if the cell is a leaf. */
+    private int[] firstChild;
+    private int cellCount = 0;
+
+    /**
+     * Create an empty quadtree. Points are added using {@link #build(double[], double[], int)}.
+     */
+    public QuadTree() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Create a quadtree containing the given points.
+     * @param x the x coordinates of the points
+     * @param y the y coordinates of the points
+     * @param pointCount the number of points to store, starting from index 0
+     * @see #build(double[], double[], int)
+     */
+    public QuadTree(double[] x, double[] y, int pointCount) {
+        allocate(Math.max(INITIAL_CAPACITY, pointCount * 2));
+        build(x, y, pointCount);
+    }
+
+    /**
+     * Remove every point from the tree and store the given points instead. The bounds of the tree are the smallest
+     * square containing every point.
+     * @param x the x coordinates of the points
+     * @param y the y coordinates of the points
+     * @param pointCount the number of points to store, starting from index 0
+     */
+    public void build(double[] x, double[] y, int pointCount) {
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < pointCount; i++) {
+            minX = Math.min(minX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxX = Math.max(maxX, x[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+
+        cellCount = 0;
+        if (pointCount == 0) createCell(0, 0, 1, 0);
+        // Pad the size slightly so that points on the maximum edges still fall inside the tree
+        else createCell(minX, minY, Math.max(Math.max(maxX - minX, maxY - minY), 1) * 1.0001d, 0);
+
+        for (int i = 0; i < pointCount; i++) insert(x[i], y[i]);
+    }
+
+    /**
+     * @return the number of points stored in the tree
+     */
+    public int count() {
+        return count[0];
+    }
+
+    private void allocate(int capacity) {
+        minX = new double[capacity];
+        minY = new double[capacity];
+        size = new double[capacity];
+        sumX = new double[capacity];
+        sumY = new double[capacity];
+        pointX = new double[capacity];
+        pointY = new double[capacity];
+        count = new int[capacity];
+        depth = new int[capacity];
+        firstChild = new int[capacity];
+    }
+
+    private void grow() {
+        int capacity = minX.length * 2;
+        minX = Arrays.copyOf(minX, capacity);
+        minY = Arrays.copyOf(minY, capacity);
+        size = Arrays.copyOf(size, capacity);
+        sumX = Arrays.copyOf(sumX, capacity);
+        sumY = Arrays.copyOf(sumY, capacity);
+        pointX = Arrays.copyOf(pointX, capacity);
+        pointY = Arrays.copyOf(pointY, capacity);
+        count = Arrays.copyOf(count, capacity);
+        depth = Arrays.copyOf(depth, capacity);
+        firstChild = Arrays.copyOf(firstChild, capacity);
+    }
+
+    private int createCell(double cellMinX, double cellMinY, double cellSize, int cellDepth) {
+        if (cellCount == minX.length) grow();
+        int cell = cellCount++;
+        minX[cell] = cellMinX;
+        minY[cell] = cellMinY;
+        size[cell] = cellSize;
+        depth[cell] = cellDepth;
+        sumX[cell] = 0;
+        sumY[cell] = 0;
+        count[cell] = 0;
+        firstChild[cell] = -1;
+        return cell;
+    }
+
+    private void insert(double x, double y) {
+        int cell = 0;
+        while (true) {
+            count[cell]++;
+            sumX[cell] += x;
+            sumY[cell] += y;
+
+            if (firstChild[cell] < 0) {
+                // An empty leaf can store the point directly
+                if (count[cell] == 1) {
+                    pointX[cell] = x;
+                    pointY[cell] = y;
+                    return;
+                }
+                // Points at the same position, or past the maximum depth, cannot be separated by subdividing
+                if ((pointX[cell] == x && pointY[cell] == y) || depth[cell] >= MAX_DEPTH) return;
+
+                subdivide(cell);
+            }
+
+            cell = getChildFor(cell, x, y);
+        }
+    }
+
+    /**
+     * Split a leaf into four children and move its stored points into the appropriate child.
+     */
+    private void subdivide(int cell) {
+        double half = size[cell] / 2d;
+        int childDepth = depth[cell] + 1;
+        double cellMinX = minX[cell], cellMinY = minY[cell];
+
+        int first = createCell(cellMinX, cellMinY, half, childDepth);
+        createCell(cellMinX + half, cellMinY, half, childDepth);
+        createCell(cellMinX, cellMinY + half, half, childDepth);
+        createCell(cellMinX + half, cellMinY + half, half, childDepth);
+        firstChild[cell] = first;
+
+        // Every point in the leaf shares the same position, so they all move into the same child. The point being
+        // inserted has already been counted in this cell and is not moved.
+        int child = getChildFor(cell, pointX[cell], pointY[cell]);
+        int moved = count[cell] - 1;
+        count[child] = moved;
+        sumX[child] = pointX[cell] * moved;
+        sumY[child] = pointY[cell] * moved;
+        pointX[child] = pointX[cell];
+        pointY[child] = pointY[cell];
+    }
+
+    private int getChildFor(int cell, double x, double y) {
+        double half = size[cell] / 2d;
+        int index = firstChild[cell];
+        if (x >= minX[cell] + half) index += 1;
+        if (y >= minY[cell] + half) index += 2;
+        return index;
+    }
+
+    /**
+     * Count the stored points that are at exactly the same position as the given point.
+     * @param x the x coordinate of the position
+     * @param y the y coordinate of the position
+     * @return the number of points at the position
+     */
+    public int countPointsAt(double x, double y) {
+        int cell = 0;
+        while (count[cell] > 0) {
+            if (firstChild[cell] < 0) return (pointX[cell] == x && pointY[cell] == y) ? count[cell] : 0;
+            cell = getChildFor(cell, x, y);
+        }
+        return 0;
+    }
+
+    /**
+     * Add the approximate repulsion acting on a position from every stored point to a pair of force accumulators.
+     * Cells that are far enough away, decided by {@code theta}, are treated as a single point at their centre of mass.
+     * Points at exactly the same position as the given position do not repel it. The tree is not modified, so this
+     * can be called from several threads at once as long as each writes to a different index.
+     * @param x the x coordinate of the position that is being repelled
+     * @param y the y coordinate of the position that is being repelled
+     * @param theta the ratio between a cell's size and its distance from the position below which the cell is
+     *              approximated, a value of 0 compares against every point individually
+     * @param repulsionConstant the repulsion constant between two points
+     * @param forceX the accumulator that the x component of the repulsion is added to
+     * @param forceY the accumulator that the y component of the repulsion is added to
+     * @param index the index of {@code forceX} and {@code forceY} to add to
+     */
+    public void addRepulsionOn(double x, double y, double theta, double repulsionConstant,
+                               double[] forceX, double[] forceY, int index) {
+        addRepulsionFrom(0, x, y, theta * theta, repulsionConstant, forceX, forceY, index);
+    }
+
+    private void addRepulsionFrom(int cell, double x, double y, double thetaSquared, double repulsionConstant,
+                                  double[] forceX, double[] forceY, int index) {
+        int cellPoints = count[cell];
+        if (cellPoints == 0) return;
+
+        double dx = x - sumX[cell] / cellPoints;
+        double dy = y - sumY[cell] / cellPoints;
+        double distanceSquared = dx * dx + dy * dy;
+        int first = firstChild[cell];
+
+        // Compare squared values to avoid a square root for cells that are too close to be approximated
+        if (first < 0 || (distanceSquared > 0 && size[cell] * size[cell] < thetaSquared * distanceSquared)) {
+            if (distanceSquared == 0) return;
+            double magnitude = repulsionConstant * cellPoints / (distanceSquared * Math.sqrt(distanceSquared));
+            forceX[index] += dx * magnitude;
+            forceY[index] += dy * magnitude;
+            return;
+        }
+
+        for (int child = first; child < first + 4; child++)
+            addRepulsionFrom(child, x, y, thetaSquared, repulsionConstant, forceX, forceY, index);
+    }
+}